@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.perf.DatasetGenerator;
+
+import javax.sql.DataSource;
+
+// Встроенная H2 с заданным числом фильмов и поднятый поверх неё контекст приложения
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final int LIKES_PER_FILM = 10;
+    private static final int MIN_USERS = 1_000;
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkDatabase(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    // Данные заливаются до старта контекста, чтобы индексы в памяти загрузились уже по ним
+    public static BenchmarkDatabase start(int films) {
+        String url = "jdbc:h2:mem:jmh-" + films + ";DB_CLOSE_DELAY=-1";
+        seed(new SimpleDriverDataSource(new org.h2.Driver(), url, "sa", "password"), films);
+        // Аргументы командной строки перекрывают application.properties, в отличие от properties() билдера
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.sql.init.mode=never",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.zalando.logbook=WARN",
+                        "--filmorate.metrics.methods.enabled=false",
+                        "--filmorate.sql.tracking.enabled=false");
+        return new BenchmarkDatabase(context);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public DataSource dataSource() {
+        return context.getBean(DataSource.class);
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return context.getBean(JdbcTemplate.class);
+    }
+
+    @Override
+    public void close() {
+        jdbcTemplate().execute("SHUTDOWN");
+        context.close();
+    }
+
+    private static void seed(DataSource dataSource, int films) {
+        DatasetGenerator.initSchema(dataSource);
+        DatasetGenerator.builder()
+                .users(Math.max(MIN_USERS, films / 10))
+                .films(films)
+                .likes((long) films * LIKES_PER_FILM)
+                .build()
+                .generate(dataSource);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.GenreDbStorage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GenreStorageBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1000", "10000", "100000"})
+    public int films;
+
+    private BenchmarkDatabase database;
+    private GenreDbStorage genreStorage;
+    private List<Long> firstPageIds;
+    private List<Long> secondPageIds;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(films);
+        genreStorage = database.getBean(GenreDbStorage.class);
+        FilmDbStorage filmStorage = database.getBean(FilmDbStorage.class);
+        List<Film> firstPage = filmStorage.findFilmsPage(0, PAGE_SIZE);
+        firstPageIds = firstPage.stream().map(Film::getFilmId).toList();
+        secondPageIds = filmStorage.findFilmsPage(firstPage.getLast().getFilmId(), PAGE_SIZE).stream()
+                .map(Film::getFilmId)
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Map<Long, List<Genre>> getFilmGenresForPage() {
+        return genreStorage.getFilmGenres((invocation++ & 1) == 0 ? firstPageIds : secondPageIds);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Long, List<Genre>> getAllFilmGenres() {
+        return genreStorage.getFilmGenres();
+    }
+}
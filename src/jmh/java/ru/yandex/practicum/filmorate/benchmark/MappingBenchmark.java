@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.RowMapper;
+import ru.yandex.practicum.filmorate.dto.response.FilmResponse;
+import ru.yandex.practicum.filmorate.dto.response.GenreResponse;
+import ru.yandex.practicum.filmorate.dto.response.MpaResponse;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.GenreService;
+import ru.yandex.practicum.filmorate.service.MpaService;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+import ru.yandex.practicum.filmorate.storage.mapper.UserRowMapper;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Прокручиваемый результат H2 материализуется в памяти, поэтому замеряется маппинг, а не выполнение запроса
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+
+    private static final int ROWS = 1_000;
+    private static final String FILMS_SQL = "SELECT film_id, name, description, release_date, duration, rating_id "
+            + "FROM films ORDER BY film_id LIMIT " + ROWS;
+    private static final String USERS_SQL = "SELECT user_id, email, login, name, birthday "
+            + "FROM users ORDER BY user_id LIMIT " + ROWS;
+
+    private final FilmRowMapper filmRowMapper = new FilmRowMapper();
+    private final UserRowMapper userRowMapper = new UserRowMapper();
+
+    private BenchmarkDatabase database;
+    private Connection connection;
+    private ResultSet filmRows;
+    private ResultSet userRows;
+    private List<Film> films;
+    private List<GenreResponse> genreResponses;
+    private MpaResponse mpaResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        database = BenchmarkDatabase.start(ROWS);
+        connection = database.dataSource().getConnection();
+        filmRows = scrollableQuery(FILMS_SQL);
+        userRows = scrollableQuery(USERS_SQL);
+        films = database.jdbcTemplate().query(FILMS_SQL, filmRowMapper);
+        genreResponses = database.getBean(GenreService.class).getAllGenres().subList(0, 2);
+        mpaResponse = database.getBean(MpaService.class).getMpaRatingById(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        database.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void filmRowMapper(Blackhole blackhole) throws SQLException {
+        mapRows(filmRows, filmRowMapper, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void userRowMapper(Blackhole blackhole) throws SQLException {
+        mapRows(userRows, userRowMapper, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapToFilmResponse(Blackhole blackhole) {
+        for (Film film : films) {
+            FilmResponse response = FilmMapper.mapToFilmResponse(film, genreResponses, mpaResponse);
+            blackhole.consume(response);
+        }
+    }
+
+    private ResultSet scrollableQuery(String sql) throws SQLException {
+        Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        return statement.executeQuery(sql);
+    }
+
+    private static void mapRows(ResultSet rows, RowMapper<?> mapper, Blackhole blackhole) throws SQLException {
+        rows.beforeFirst();
+        int rowNum = 0;
+        while (rows.next()) {
+            blackhole.consume(mapper.mapRow(rows, rowNum++));
+        }
+    }
+}
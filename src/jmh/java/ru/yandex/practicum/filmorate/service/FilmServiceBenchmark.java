@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ru.yandex.practicum.filmorate.benchmark.BenchmarkDatabase;
+import ru.yandex.practicum.filmorate.dto.response.FilmResponse;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmDbStorage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilmServiceBenchmark {
+
+    private static final int COUNT = 10;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1000", "10000", "100000"})
+    public int films;
+
+    private BenchmarkDatabase database;
+    private FilmService filmService;
+    private List<Film> firstPage;
+    private List<Film> secondPage;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(films);
+        filmService = database.getBean(FilmService.class);
+        FilmDbStorage filmStorage = database.getBean(FilmDbStorage.class);
+        firstPage = filmStorage.findFilmsPage(0, PAGE_SIZE);
+        secondPage = filmStorage.findFilmsPage(firstPage.getLast().getFilmId(), PAGE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    // H2 повторно отдаёт результат команды при тех же параметрах, поэтому аргументы чередуются
+    @Benchmark
+    public List<FilmResponse> getTopPopularFilms() {
+        return filmService.getTopPopularFilms(COUNT + (invocation++ & 1));
+    }
+
+    @Benchmark
+    public List<FilmResponse> getFilmResponses() {
+        return filmService.getFilmResponses((invocation++ & 1) == 0 ? firstPage : secondPage);
+    }
+}
@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+final class JdbcConnectionGate {
+
+    static final String WAIT_METER = "filmorate.jdbc.gate.wait";
+    static final String WAITING_METER = "filmorate.jdbc.gate.waiting";
+
+    // Честный семафор: ожидающие получают соединения в порядке очереди, а не наперегонки внутри пула
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private volatile Timer waitTimer;
+
+    private JdbcConnectionGate(int permits, long acquireTimeoutMs, ObjectProvider<MeterRegistry> registryProvider) {
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.registryProvider = registryProvider;
+    }
+
+    static DataSource wrap(DataSource dataSource, int permits, long acquireTimeoutMs,
+                           ObjectProvider<MeterRegistry> registryProvider) {
+        JdbcConnectionGate gate = new JdbcConnectionGate(permits, acquireTimeoutMs, registryProvider);
+        Object proxy = Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (p, method, args) -> method.getName().equals("getConnection")
+                        ? gate.getConnection(dataSource, method, args)
+                        : invoke(dataSource, method, args));
+        return (DataSource) proxy;
+    }
+
+    private Connection getConnection(DataSource dataSource, Method method, Object[] args) throws Throwable {
+        long startedAt = System.nanoTime();
+        if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new SQLTransientConnectionException(
+                    "Не дождались свободного соединения с БД за " + acquireTimeoutMs + " мс");
+        }
+        recordWait(System.nanoTime() - startedAt);
+        try {
+            Connection connection = (Connection) invoke(dataSource, method, args);
+            return releasingOnClose(connection);
+        } catch (Throwable e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        Object proxy = Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (p, method, args) -> {
+                    if (!method.getName().equals("close")) {
+                        return invoke(connection, method, args);
+                    }
+                    try {
+                        return invoke(connection, method, args);
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+        return (Connection) proxy;
+    }
+
+    private void recordWait(long nanos) {
+        Timer timer = waitTimer;
+        if (timer == null) {
+            MeterRegistry registry = registryProvider.getIfAvailable();
+            if (registry == null) {
+                return;
+            }
+            timer = Timer.builder(WAIT_METER)
+                    .description("Ожидание разрешения на соединение с БД")
+                    .register(registry);
+            Gauge.builder(WAITING_METER, permits, Semaphore::getQueueLength)
+                    .description("Потоки в очереди за соединением с БД")
+                    .register(registry);
+            waitTimer = timer;
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+// На виртуальных потоках число одновременных запросов не ограничено пулом Tomcat,
+// поэтому доступ к соединениям ограничивается семафором по размеру пула JDBC
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class JdbcConnectionGatePostProcessor implements BeanPostProcessor {
+
+    // Hikari подставляет это значение при старте пула, если размер не задан явно
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private final int configuredPermits;
+    private final long acquireTimeoutMs;
+
+    public JdbcConnectionGatePostProcessor(
+            ObjectProvider<MeterRegistry> registryProvider,
+            @Value("${filmorate.jdbc.gate.permits:0}") int configuredPermits,
+            @Value("${filmorate.jdbc.gate.acquire-timeout-ms:30000}") long acquireTimeoutMs
+    ) {
+        this.registryProvider = registryProvider;
+        this.configuredPermits = configuredPermits;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            int permits = resolvePermits(dataSource);
+            log.info("Доступ к соединениям БД ограничен {} одновременными владельцами", permits);
+            return JdbcConnectionGate.wrap(dataSource, permits, acquireTimeoutMs, registryProvider);
+        }
+        return bean;
+    }
+
+    private int resolvePermits(DataSource dataSource) {
+        if (configuredPermits > 0) {
+            return configuredPermits;
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                return poolSize > 0 ? poolSize : HIKARI_DEFAULT_POOL_SIZE;
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось определить размер пула соединений", e);
+        }
+        throw new IllegalStateException("Размер пула соединений неизвестен: задайте filmorate.jdbc.gate.permits");
+    }
+}
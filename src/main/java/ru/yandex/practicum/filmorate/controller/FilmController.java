@@ -1,22 +1,48 @@
 package ru.yandex.practicum.filmorate.controller;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.dto.request.FilmRequest;
+import ru.yandex.practicum.filmorate.dto.response.FilmBatchResponse;
 import ru.yandex.practicum.filmorate.dto.response.FilmResponse;
+import ru.yandex.practicum.filmorate.dto.response.FilmTitleResponse;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.Page;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @Slf4j
 @RestController
 @RequestMapping("/films")
-@RequiredArgsConstructor
 public class FilmController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final long exportTimeoutMs;
+
+    public FilmController(
+            FilmService filmService,
+            ObjectMapper objectMapper,
+            @Value("${filmorate.export.timeout-ms:1800000}") long exportTimeoutMs
+    ) {
+        this.filmService = filmService;
+        this.objectMapper = objectMapper;
+        this.exportTimeoutMs = exportTimeoutMs;
+    }
 
     @PostMapping
     public FilmResponse addFilm(@RequestBody FilmRequest filmRequest) {
@@ -24,6 +50,12 @@ public class FilmController {
         return filmService.addFilm(filmRequest);
     }
 
+    @PostMapping("/batch")
+    public FilmBatchResponse addFilms(@RequestBody List<FilmRequest> filmRequests) {
+        log.info("Получен запрос на пакетное добавление фильмов: {} шт.", filmRequests.size());
+        return filmService.addFilms(filmRequests);
+    }
+
     @PutMapping
     public FilmResponse updateFilm(@RequestBody FilmRequest filmRequest) {
         log.info("Получен запрос на обновление фильма с ID: {}", filmRequest.getId());
@@ -31,9 +63,47 @@ public class FilmController {
     }
 
     @GetMapping
-    public List<FilmResponse> getAllFilms() {
-        log.info("Получен запрос на получение списка всех фильмов");
-        return filmService.findAllFilms();
+    public ResponseEntity<List<FilmResponse>> getAllFilms(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        if (after == null && limit == null) {
+            log.info("Получен запрос на получение списка всех фильмов");
+            return PageHeaders.withNextCursor(filmService.findAllFilms());
+        }
+        log.info("Получен запрос на получение страницы фильмов: after={}, limit={}", after, limit);
+        Page<FilmResponse> page = filmService.findFilmsPage(after, limit);
+        return PageHeaders.withNextCursor(page);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportFilms(HttpServletRequest request) {
+        log.info("Получен запрос на потоковую выгрузку каталога фильмов");
+        // Длинный таймаут задаётся только этому запросу: обработчик StreamingResponseBody своего таймаута не задаёт
+        // и запускает асинхронную обработку с тем, что уже выставлено у AsyncWebRequest
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeoutMs);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(this::writeExport);
+    }
+
+    // Генератор пишет прямо в поток ответа: запись блокируется, пока клиент не прочитает отправленное,
+    // поэтому выгрузка идёт со скоростью клиента и не копит строки в памяти
+    private void writeExport(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            filmService.exportFilms(film -> {
+                try {
+                    generator.writeObject(film);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.warn("Выгрузка каталога фильмов прервана: {}", e.getMessage());
+            throw e.getCause();
+        }
     }
 
     @GetMapping("/{id}")
@@ -62,9 +132,33 @@ public class FilmController {
         filmService.deleteLike(id, userId);
     }
 
+    @GetMapping("/search")
+    public List<FilmResponse> searchFilms(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit
+    ) {
+        log.info("Получен запрос на поиск фильмов: {}", q);
+        return filmService.searchFilms(q, limit);
+    }
+
+    @GetMapping("/autocomplete")
+    public List<FilmTitleResponse> autocompleteFilms(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit
+    ) {
+        log.debug("Получен запрос на автодополнение названия фильма: {}", prefix);
+        return filmService.autocompleteFilms(prefix, limit);
+    }
+
     @GetMapping("/popular")
-    public List<FilmResponse> getTopPopularFilms(@RequestParam(defaultValue = "10") int count) {
-        log.info("Получен запрос на получение топ {} популярных фильмов по лайкам", count);
-        return filmService.getTopPopularFilms(count);
+    public List<FilmResponse> getTopPopularFilms(
+            @RequestParam(defaultValue = "10") int count,
+            @RequestParam(required = false) Integer genreId,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer mpaId
+    ) {
+        log.info("Получен запрос на получение топ {} популярных фильмов по лайкам (жанр: {}, год: {}, рейтинг: {})",
+                count, genreId, year, mpaId);
+        return filmService.getTopPopularFilms(count, genreId, year, mpaId);
     }
 }
\ No newline at end of file
@@ -3,10 +3,15 @@ package ru.yandex.practicum.filmorate.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.filmorate.dto.request.UserRequest;
+import ru.yandex.practicum.filmorate.dto.response.FilmResponse;
+import ru.yandex.practicum.filmorate.dto.response.FriendSuggestionsResponse;
 import ru.yandex.practicum.filmorate.dto.response.UserResponse;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.FriendShipService;
+import ru.yandex.practicum.filmorate.service.Page;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.List;
@@ -19,6 +24,7 @@ public class UserController {
 
     private final UserService userService;
     private final FriendShipService friendShipService;
+    private final FilmService filmService;
 
     @PostMapping
     public UserResponse addUser(@RequestBody UserRequest userRequest) {
@@ -33,9 +39,17 @@ public class UserController {
     }
 
     @GetMapping
-    public List<UserResponse> getAllUsers() {
-        log.info("Получен запрос на список всех пользователей.");
-        return userService.findAllUsers();
+    public ResponseEntity<List<UserResponse>> getAllUsers(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        if (after == null && limit == null) {
+            log.info("Получен запрос на список всех пользователей.");
+            return PageHeaders.withNextCursor(userService.findAllUsers());
+        }
+        log.info("Получен запрос на страницу пользователей: after={}, limit={}", after, limit);
+        Page<UserResponse> page = userService.findUsersPage(after, limit);
+        return PageHeaders.withNextCursor(page);
     }
 
     @PutMapping("/{userId}/friends/{friendId}")
@@ -63,6 +77,24 @@ public class UserController {
         return friendShipService.getFriends(id);
     }
 
+    @GetMapping("/{id}/friends/suggestions")
+    public FriendSuggestionsResponse getFriendSuggestions(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer limit
+    ) {
+        log.info("Получен запрос на рекомендации друзей для пользователя с ID: {}", id);
+        return friendShipService.getFriendSuggestions(id, limit);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public List<FilmResponse> getRecommendations(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer limit
+    ) {
+        log.info("Получен запрос на рекомендации фильмов для пользователя с ID: {}", id);
+        return filmService.getRecommendations(id, limit);
+    }
+
     @GetMapping("/{id}/friends/common/{otherId}")
     public List<UserResponse> getCommonFriends(
             @PathVariable Long id,
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class FilmBatchItemResponse {
+    private int index;
+    private FilmResponse film;
+    private String error;
+}
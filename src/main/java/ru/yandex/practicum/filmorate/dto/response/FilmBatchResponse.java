@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class FilmBatchResponse {
+    private int created;
+    private int failed;
+    private List<FilmBatchItemResponse> items;
+}
@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class FilmTitleResponse {
+    private Long id;
+    private String name;
+}
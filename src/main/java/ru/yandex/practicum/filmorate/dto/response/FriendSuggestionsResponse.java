@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class FriendSuggestionsResponse {
+    private List<FriendSuggestionResponse> items;
+    private boolean truncated;
+}
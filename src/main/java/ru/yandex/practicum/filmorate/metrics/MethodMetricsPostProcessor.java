@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FriendShipService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FriendShipStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.metrics.methods.enabled", havingValue = "true", matchIfMissing = true)
+public class MethodMetricsPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+    static final String STORAGE_METER = "filmorate.storage";
+    static final String SERVICE_METER = "filmorate.service";
+
+    private static final List<Class<?>> STORAGE_INTERFACES = List.of(
+            FilmStorage.class, UserStorage.class, FriendShipStorage.class, GenreStorage.class, MpaStorage.class);
+    private static final List<Class<?>> SERVICE_CLASSES = List.of(FilmService.class, FriendShipService.class);
+
+    public MethodMetricsPostProcessor(ObjectProvider<MeterRegistry> registryProvider) {
+        this.advisor = new DefaultPointcutAdvisor(new MonitoredMethodPointcut(),
+                new MethodTimingInterceptor(registryProvider));
+        // Совет встаёт перед транзакционным, чтобы в замер попадало и время коммита.
+        // Прокси строятся по классу, чтобы бины по-прежнему внедрялись по конкретному типу
+        setBeforeExistingAdvisors(true);
+        setProxyTargetClass(true);
+    }
+
+    static String meterName(Class<?> targetClass) {
+        return STORAGE_INTERFACES.stream().anyMatch(storage -> storage.isAssignableFrom(targetClass))
+                ? STORAGE_METER
+                : SERVICE_METER;
+    }
+
+    private static final class MonitoredMethodPointcut extends StaticMethodMatcherPointcut {
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            for (Class<?> storage : STORAGE_INTERFACES) {
+                if (storage.isAssignableFrom(targetClass) && declares(storage, method)) {
+                    return true;
+                }
+            }
+            return SERVICE_CLASSES.contains(targetClass)
+                    && method.getDeclaringClass() == targetClass
+                    && Modifier.isPublic(method.getModifiers());
+        }
+
+        private static boolean declares(Class<?> type, Method method) {
+            try {
+                type.getMethod(method.getName(), method.getParameterTypes());
+                return true;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+class MethodTimingInterceptor implements MethodInterceptor {
+
+    private static final Duration MIN_EXPECTED = Duration.ofNanos(10_000);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(10);
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    // Таймеры создаются один раз на метод: вызов стоит поиска в карте, двух nanoTime и записи в гистограмму
+    private final Map<Method, MethodTimers> timersByMethod = new ConcurrentHashMap<>();
+
+    MethodTimingInterceptor(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registryProvider = registryProvider;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodTimers timers = timersByMethod.get(invocation.getMethod());
+        if (timers == null) {
+            Class<?> targetClass = AopUtils.getTargetClass(invocation.getThis());
+            timers = timersByMethod.computeIfAbsent(invocation.getMethod(), method -> createTimers(method, targetClass));
+        }
+        long startedAt = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            timers.success().record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timers.error().record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private MethodTimers createTimers(Method method, Class<?> targetClass) {
+        MeterRegistry registry = registryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        // Гистограмма нужна только успешным вызовам: для ошибок хватает количества и максимума
+        return new MethodTimers(
+                timer(method, targetClass, "success")
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(MIN_EXPECTED)
+                        .maximumExpectedValue(MAX_EXPECTED)
+                        .register(registry),
+                timer(method, targetClass, "error").register(registry));
+    }
+
+    private static Timer.Builder timer(Method method, Class<?> targetClass, String outcome) {
+        return Timer.builder(MethodMetricsPostProcessor.meterName(targetClass))
+                .description("Время выполнения методов хранилищ и сервисов")
+                .tag("class", targetClass.getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome);
+    }
+
+    private record MethodTimers(Timer success, Timer error) {
+    }
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.sql.tracking.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String JDBC_TIME_HEADER = "X-Sql-Time-Ms";
+
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final long maxJdbcMillis;
+    private final boolean exposeHeaders;
+
+    public SqlBudgetFilter(
+            @Value("${filmorate.sql.budget.max-statements:20}") int maxStatements,
+            @Value("${filmorate.sql.budget.max-repeats:5}") int maxRepeats,
+            @Value("${filmorate.sql.budget.max-jdbc-ms:200}") long maxJdbcMillis,
+            Environment environment
+    ) {
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+        this.maxJdbcMillis = maxJdbcMillis;
+        this.exposeHeaders = !environment.acceptsProfiles(Profiles.of("prod"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStatementTracker.Scope scope = SqlStatementTracker.open()) {
+            SqlStatementStats stats = scope.stats();
+            HttpServletResponse trackedResponse = exposeHeaders ? new StatsHeaderResponse(response, stats) : response;
+            chain.doFilter(request, trackedResponse);
+            if (trackedResponse instanceof StatsHeaderResponse statsResponse) {
+                statsResponse.writeHeaders();
+            }
+            checkBudget(request, stats);
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, SqlStatementStats stats) {
+        if (stats.getStatementCount() <= maxStatements
+                && stats.getMaxRepeats() <= maxRepeats
+                && stats.getJdbcMillis() <= maxJdbcMillis) {
+            return;
+        }
+        log.warn("Запрос {} {} превысил бюджет SQL: {} запросов (лимит {}), {} мс JDBC (лимит {}), повторы: {}",
+                request.getMethod(), request.getRequestURI(), stats.getStatementCount(), maxStatements,
+                stats.getJdbcMillis(), maxJdbcMillis, stats.getRepeatedStatements());
+    }
+
+    // Заголовки должны попасть в ответ до начала записи тела, поэтому выставляются при первом обращении к нему
+    private static final class StatsHeaderResponse extends HttpServletResponseWrapper {
+
+        private final SqlStatementStats stats;
+        private boolean headersWritten;
+
+        StatsHeaderResponse(HttpServletResponse response, SqlStatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        void writeHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            setHeader(STATEMENTS_HEADER, String.valueOf(stats.getStatementCount()));
+            setHeader(JDBC_TIME_HEADER, String.valueOf(stats.getJdbcMillis()));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+public class SqlStatementStats {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    final SqlStatementStats parent;
+    private int statementCount;
+    private long jdbcNanos;
+    private final Map<String, Integer> countsBySql = new HashMap<>();
+
+    SqlStatementStats(SqlStatementStats parent) {
+        this.parent = parent;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getJdbcMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(jdbcNanos);
+    }
+
+    public int getMaxRepeats() {
+        return countsBySql.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    // Повторяющиеся запросы в нормализованном виде, самые частые первыми
+    public Map<String, Integer> getRepeatedStatements() {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        countsBySql.entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    void record(String sql, long nanos) {
+        statementCount++;
+        jdbcNanos += nanos;
+        countsBySql.merge(normalize(sql), 1, Integer::sum);
+    }
+
+    // Литералы и списки параметров IN сворачиваются, чтобы N+1 с разными ID давал один и тот же текст
+    static String normalize(String sql) {
+        if (sql == null) {
+            return "<batch>";
+        }
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = PARAMETER_LIST.matcher(normalized).replaceAll("(?)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SqlStatementTracker {
+
+    // Учёт привязан к потоку запроса; вложенные области учёта получают запросы и внутренней области
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    public static Scope open() {
+        SqlStatementStats stats = new SqlStatementStats(CURRENT.get());
+        CURRENT.set(stats);
+        return new Scope(stats);
+    }
+
+    public static SqlStatementStats track(TrackedAction action) throws Exception {
+        try (Scope scope = open()) {
+            action.run();
+            return scope.stats();
+        }
+    }
+
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void record(String sql, long nanos) {
+        for (SqlStatementStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.record(sql, nanos);
+        }
+    }
+
+    @FunctionalInterface
+    public interface TrackedAction {
+        void run() throws Exception;
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final SqlStatementStats stats;
+
+        private Scope(SqlStatementStats stats) {
+            this.stats = stats;
+        }
+
+        public SqlStatementStats stats() {
+            return stats;
+        }
+
+        @Override
+        public void close() {
+            if (stats.parent != null) {
+                CURRENT.set(stats.parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.sql.tracking.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTrackingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("prepareStatement", "createStatement", "prepareCall");
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, null);
+        }
+        return bean;
+    }
+
+    // DataSource -> Connection -> Statement: каждый уровень оборачивается, время считается на execute*
+    private static <T> T proxy(Class<T> type, T target, String sql) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> invoke(target, method, args, sql));
+        return type.cast(proxy);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args, String sql) throws Throwable {
+        boolean execution = target instanceof Statement
+                && method.getName().startsWith("execute")
+                && SqlStatementTracker.isActive();
+        long startedAt = execution ? System.nanoTime() : 0;
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            if (execution) {
+                String executedSql = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+                SqlStatementTracker.record(executedSql, System.nanoTime() - startedAt);
+            }
+        }
+        return wrapResult(method, args, result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object wrapResult(Method method, Object[] args, Object result) {
+        if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+            return proxy(Connection.class, connection, null);
+        }
+        if (result instanceof Statement && STATEMENT_FACTORIES.contains(method.getName())) {
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            return proxy((Class<Object>) method.getReturnType(), result, sql);
+        }
+        return result;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Data
 @Builder
@@ -14,4 +15,5 @@ public class Film {
     private LocalDate releaseDate;
     private Integer duration;
     private Integer mpaId;
+    private List<Genre> genres;
 }
\ No newline at end of file
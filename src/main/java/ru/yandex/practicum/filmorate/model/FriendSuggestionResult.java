@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class FriendSuggestionResult {
+    private List<FriendSuggestion> suggestions;
+    private boolean truncated;
+}
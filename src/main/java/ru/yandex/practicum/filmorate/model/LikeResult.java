@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.model;
+
+public enum LikeResult {
+    APPLIED,
+    ALREADY_LIKED,
+    NOT_LIKED,
+    FILM_NOT_FOUND,
+    USER_NOT_FOUND
+}
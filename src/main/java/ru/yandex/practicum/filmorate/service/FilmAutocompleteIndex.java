@@ -0,0 +1,290 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dto.response.FilmTitleResponse;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class FilmAutocompleteIndex {
+
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    private final FilmStorage filmStorage;
+    private final FilmPopularityIndex popularityIndex;
+
+    private final Map<Long, Title> titlesByFilmId = new HashMap<>();
+    private SortedTitles sorted = SortedTitles.EMPTY;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FilmAutocompleteIndex(FilmStorage filmStorage, FilmPopularityIndex popularityIndex) {
+        this.filmStorage = filmStorage;
+        this.popularityIndex = popularityIndex;
+        // Лайки хранятся рядом с названиями, чтобы запрос не ходил за счётчиком каждого совпавшего фильма
+        popularityIndex.addLikeCountListener(this::refreshLikes);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            titlesByFilmId.clear();
+            List<Entry> entries = new ArrayList<>();
+            filmStorage.streamFilmsWithGenres(LOAD_FETCH_SIZE, film -> entries.add(putTitle(film)));
+            sorted = SortedTitles.EMPTY.merge(entries, Set.of());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс автодополнения построен для {} фильмов", titlesByFilmId.size());
+    }
+
+    public void indexFilm(Film film) {
+        indexFilms(List.of(film));
+    }
+
+    public void indexFilms(List<Film> films) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> replaced = new HashSet<>();
+            Map<Long, Entry> entries = new LinkedHashMap<>();
+            for (Film film : films) {
+                if (titlesByFilmId.containsKey(film.getFilmId())) {
+                    replaced.add(film.getFilmId());
+                }
+                entries.put(film.getFilmId(), putTitle(film));
+            }
+            sorted = sorted.merge(new ArrayList<>(entries.values()), replaced);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<FilmTitleResponse> complete(String prefix, int limit) {
+        String normalizedPrefix = SearchTokenizer.normalize(prefix);
+        if (normalizedPrefix.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int from = sorted.lowerBound(normalizedPrefix);
+            int to = sorted.upperBound(normalizedPrefix, from);
+            List<FilmTitleResponse> completions = new ArrayList<>(Math.min(limit, to - from));
+            for (long filmId : sorted.top(from, to, limit)) {
+                completions.add(FilmTitleResponse.builder()
+                        .id(filmId)
+                        .name(titlesByFilmId.get(filmId).name())
+                        .build());
+            }
+            return completions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Порядок блокировок всегда один: сначала индекс автодополнения, затем индекс популярности
+    private void refreshLikes(long filmId) {
+        lock.writeLock().lock();
+        try {
+            Title title = titlesByFilmId.get(filmId);
+            if (title != null) {
+                sorted.setLikes(sorted.positionOf(title.key(), filmId), popularityIndex.getLikeCount(filmId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Entry putTitle(Film film) {
+        Title title = new Title(SearchTokenizer.normalize(film.getName()).strip(), film.getName());
+        titlesByFilmId.put(film.getFilmId(), title);
+        return new Entry(title.key(), film.getFilmId(), popularityIndex.getLikeCount(film.getFilmId()));
+    }
+
+    private record Title(String key, String name) {
+    }
+
+    private record Entry(String key, long filmId, int likes) {
+    }
+
+    private record Candidate(int position, int from, int to) {
+    }
+
+    /**
+     * Названия, отсортированные по паре (нормализованное название, ID), и их лайки. Над лайками построено
+     * дерево отрезков: в каждом узле — позиция самого популярного фильма его диапазона. Префикс задаёт
+     * непрерывный диапазон позиций, и K лучших фильмов из него извлекаются за K запросов к дереву
+     * независимо от ширины диапазона.
+     */
+    private static final class SortedTitles {
+
+        static final SortedTitles EMPTY = new SortedTitles(new String[0], new long[0], new int[0]);
+
+        private static final Comparator<Entry> TITLE_ORDER = Comparator.comparing(Entry::key)
+                .thenComparingLong(Entry::filmId);
+
+        private final String[] keys;
+        private final long[] filmIds;
+        private final int[] likes;
+        private final int[] best;
+
+        SortedTitles(String[] keys, long[] filmIds, int[] likes) {
+            this.keys = keys;
+            this.filmIds = filmIds;
+            this.likes = likes;
+            int size = keys.length;
+            this.best = new int[2 * size];
+            for (int i = 0; i < size; i++) {
+                best[size + i] = i;
+            }
+            for (int node = size - 1; node > 0; node--) {
+                best[node] = better(best[2 * node], best[2 * node + 1]);
+            }
+        }
+
+        // Сортируются только добавленные названия, затем они сливаются с уже упорядоченными за один проход;
+        // прежние позиции заменяемых фильмов при слиянии пропускаются
+        SortedTitles merge(List<Entry> added, Set<Long> replaced) {
+            added.sort(TITLE_ORDER);
+            int size = keys.length - replaced.size() + added.size();
+            String[] newKeys = new String[size];
+            long[] newFilmIds = new long[size];
+            int[] newLikes = new int[size];
+            int current = 0;
+            int next = 0;
+            for (int position = 0; position < size; position++) {
+                while (current < keys.length && replaced.contains(filmIds[current])) {
+                    current++;
+                }
+                boolean takeAdded = current == keys.length || (next < added.size()
+                        && compare(added.get(next).key(), added.get(next).filmId(), current) < 0);
+                if (takeAdded) {
+                    Entry entry = added.get(next++);
+                    newKeys[position] = entry.key();
+                    newFilmIds[position] = entry.filmId();
+                    newLikes[position] = entry.likes();
+                } else {
+                    newKeys[position] = keys[current];
+                    newFilmIds[position] = filmIds[current];
+                    newLikes[position] = likes[current];
+                    current++;
+                }
+            }
+            return new SortedTitles(newKeys, newFilmIds, newLikes);
+        }
+
+        void setLikes(int position, int likeCount) {
+            if (position < 0) {
+                return;
+            }
+            likes[position] = likeCount;
+            for (int node = (position + keys.length) / 2; node > 0; node /= 2) {
+                best[node] = better(best[2 * node], best[2 * node + 1]);
+            }
+        }
+
+        // Порядок совпадает с индексом популярности: больше лайков, затем больший ID
+        List<Long> top(int from, int to, int limit) {
+            List<Long> topFilmIds = new ArrayList<>(Math.min(limit, to - from));
+            PriorityQueue<Candidate> candidates = new PriorityQueue<>((first, second) ->
+                    first.position() == second.position() ? 0
+                            : better(first.position(), second.position()) == first.position() ? -1 : 1);
+            addCandidate(candidates, from, to);
+            while (topFilmIds.size() < limit && !candidates.isEmpty()) {
+                Candidate candidate = candidates.poll();
+                topFilmIds.add(filmIds[candidate.position()]);
+                addCandidate(candidates, candidate.from(), candidate.position());
+                addCandidate(candidates, candidate.position() + 1, candidate.to());
+            }
+            return topFilmIds;
+        }
+
+        int positionOf(String key, long filmId) {
+            int position = insertionPoint(key, filmId);
+            return position < keys.length && keys[position].equals(key) && filmIds[position] == filmId
+                    ? position
+                    : -1;
+        }
+
+        int lowerBound(String prefix) {
+            return insertionPoint(prefix, Long.MIN_VALUE);
+        }
+
+        int upperBound(String prefix, int from) {
+            int low = from;
+            int high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle].startsWith(prefix)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private void addCandidate(PriorityQueue<Candidate> candidates, int from, int to) {
+            if (from < to) {
+                candidates.add(new Candidate(bestIn(from, to), from, to));
+            }
+        }
+
+        private int bestIn(int from, int to) {
+            int result = -1;
+            for (int left = from + keys.length, right = to + keys.length; left < right; left /= 2, right /= 2) {
+                if (left % 2 == 1) {
+                    result = better(result, best[left++]);
+                }
+                if (right % 2 == 1) {
+                    result = better(result, best[--right]);
+                }
+            }
+            return result;
+        }
+
+        private int better(int first, int second) {
+            if (first < 0) {
+                return second;
+            }
+            if (likes[first] != likes[second]) {
+                return likes[first] > likes[second] ? first : second;
+            }
+            return filmIds[first] > filmIds[second] ? first : second;
+        }
+
+        // Первая позиция, где пара (название, ID) не меньше искомой
+        private int insertionPoint(String key, long filmId) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(key, filmId, middle) > 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int compare(String key, long filmId, int position) {
+            int comparison = key.compareTo(keys[position]);
+            return comparison != 0 ? comparison : Long.compare(filmId, filmIds[position]);
+        }
+    }
+}
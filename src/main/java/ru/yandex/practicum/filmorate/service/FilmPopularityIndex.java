@@ -0,0 +1,131 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+@Slf4j
+@Component
+public class FilmPopularityIndex {
+
+    // Порядок совпадает с ORDER BY like_count DESC, film_id DESC в FilmDbStorage
+    private static final Comparator<FilmScore> POPULARITY_ORDER = Comparator
+            .comparingInt(FilmScore::likeCount).reversed()
+            .thenComparing(Comparator.comparingLong(FilmScore::filmId).reversed());
+
+    private final FilmStorage filmStorage;
+
+    private final NavigableSet<FilmScore> ranking = new TreeSet<>(POPULARITY_ORDER);
+    private final Map<Long, FilmScore> scoresByFilmId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<LongConsumer> likeCountListeners = new CopyOnWriteArrayList<>();
+
+    public FilmPopularityIndex(FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+        // Счётчики следуют только за записанными лайками: отброшенный при сбросе лайк рейтинг не меняет
+        filmStorage.addPersistedLikeListener((filmId, userId, liked) -> changeLikes(filmId, liked ? 1 : -1));
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        filmStorage.reconcileLikeCounts();
+        Map<Long, Integer> likeCounts = filmStorage.findLikeCounts();
+        lock.writeLock().lock();
+        try {
+            ranking.clear();
+            scoresByFilmId.clear();
+            likeCounts.forEach((filmId, likeCount) -> put(new FilmScore(filmId, likeCount)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс популярности построен для {} фильмов", likeCounts.size());
+    }
+
+    public void addFilm(Long filmId) {
+        lock.writeLock().lock();
+        try {
+            if (!scoresByFilmId.containsKey(filmId)) {
+                put(new FilmScore(filmId, 0));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Слушатель получает ID фильма уже после снятия блокировки и сам перечитывает счётчик через getLikeCount,
+    // поэтому уведомления, пришедшие не по порядку, не откатывают значение назад
+    public void addLikeCountListener(LongConsumer listener) {
+        likeCountListeners.add(listener);
+    }
+
+    public void incrementLikes(Long filmId) {
+        changeLikes(filmId, 1);
+    }
+
+    public void decrementLikes(Long filmId) {
+        changeLikes(filmId, -1);
+    }
+
+    public List<Long> getTopFilmIds(int count) {
+        lock.readLock().lock();
+        try {
+            List<Long> topFilmIds = new ArrayList<>(Math.min(count, ranking.size()));
+            Iterator<FilmScore> iterator = ranking.iterator();
+            while (iterator.hasNext() && topFilmIds.size() < count) {
+                topFilmIds.add(iterator.next().filmId());
+            }
+            return topFilmIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getLikeCount(Long filmId) {
+        lock.readLock().lock();
+        try {
+            FilmScore score = scoresByFilmId.get(filmId);
+            return score != null ? score.likeCount() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Изменения складываются без ограничения снизу: лайк и снятие лайка, пришедшие не по порядку,
+    // всё равно сходятся к значению like_count в БД
+    private void changeLikes(Long filmId, int delta) {
+        lock.writeLock().lock();
+        try {
+            FilmScore current = scoresByFilmId.get(filmId);
+            int likeCount = current != null ? current.likeCount() : 0;
+            if (current != null) {
+                ranking.remove(current);
+            }
+            put(new FilmScore(filmId, likeCount + delta));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        likeCountListeners.forEach(listener -> listener.accept(filmId));
+    }
+
+    private void put(FilmScore score) {
+        ranking.add(score);
+        scoresByFilmId.put(score.filmId(), score);
+    }
+
+    private record FilmScore(long filmId, int likeCount) {
+    }
+}
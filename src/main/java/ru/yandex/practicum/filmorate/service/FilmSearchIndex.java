@@ -0,0 +1,180 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+
+    private static final int LOAD_FETCH_SIZE = 1000;
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double LIKE_BOOST = 0.2;
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private static final Comparator<SearchHit> RANKING = Comparator
+            .comparingDouble(SearchHit::score).reversed()
+            .thenComparingLong(SearchHit::filmId);
+
+    private final FilmStorage filmStorage;
+    private final FilmPopularityIndex popularityIndex;
+
+    // Списки фильмов по термам хранятся сжатыми битмапами, изменяются под блокировкой записи
+    private final Map<String, RoaringBitmap> nameIndex = new HashMap<>();
+    private final Map<String, RoaringBitmap> descriptionIndex = new HashMap<>();
+    private final Map<Long, FilmTerms> termsByFilmId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            nameIndex.clear();
+            descriptionIndex.clear();
+            termsByFilmId.clear();
+            filmStorage.streamFilmsWithGenres(LOAD_FETCH_SIZE, this::put);
+            nameIndex.values().forEach(RoaringBitmap::runOptimize);
+            descriptionIndex.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс построен для {} фильмов, термов: {}",
+                termsByFilmId.size(), nameIndex.size() + descriptionIndex.size());
+    }
+
+    public void indexFilm(Film film) {
+        if (!isIndexable(film.getFilmId())) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(film.getFilmId());
+            put(film);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query, int limit) {
+        Set<String> queryTerms = SearchTokenizer.tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap candidates = null;
+            for (String term : queryTerms) {
+                RoaringBitmap matches = RoaringBitmap.or(postings(nameIndex, term), postings(descriptionIndex, term));
+                candidates = candidates == null ? matches : RoaringBitmap.and(candidates, matches);
+                if (candidates.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Map<String, Double> idfByTerm = new HashMap<>();
+            for (String term : queryTerms) {
+                idfByTerm.put(term, idf(term));
+            }
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            candidates.forEach((int filmId) -> {
+                top.add(new SearchHit(filmId, score(filmId, idfByTerm)));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            });
+
+            List<SearchHit> hits = new ArrayList<>(top);
+            hits.sort(RANKING);
+            return hits.stream().map(SearchHit::filmId).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Текстовая релевантность: сумма idf совпавших термов с большим весом для названия, усиленная лайками
+    private double score(int filmId, Map<String, Double> idfByTerm) {
+        double relevance = 0;
+        for (Map.Entry<String, Double> entry : idfByTerm.entrySet()) {
+            double weight = 0;
+            if (postings(nameIndex, entry.getKey()).contains(filmId)) {
+                weight += NAME_WEIGHT;
+            }
+            if (postings(descriptionIndex, entry.getKey()).contains(filmId)) {
+                weight += DESCRIPTION_WEIGHT;
+            }
+            relevance += weight * entry.getValue();
+        }
+        int likes = popularityIndex.getLikeCount((long) filmId);
+        return relevance * (1 + LIKE_BOOST * Math.log1p(likes));
+    }
+
+    private double idf(String term) {
+        int documentFrequency = RoaringBitmap.or(postings(nameIndex, term), postings(descriptionIndex, term))
+                .getCardinality();
+        return Math.log(1 + (double) termsByFilmId.size() / Math.max(1, documentFrequency));
+    }
+
+    private void put(Film film) {
+        if (!isIndexable(film.getFilmId())) {
+            return;
+        }
+        int filmId = film.getFilmId().intValue();
+        FilmTerms terms = new FilmTerms(
+                SearchTokenizer.tokenize(film.getName()),
+                SearchTokenizer.tokenize(film.getDescription()));
+        terms.name().forEach(term -> nameIndex.computeIfAbsent(term, t -> new RoaringBitmap()).add(filmId));
+        terms.description().forEach(term -> descriptionIndex.computeIfAbsent(term, t -> new RoaringBitmap()).add(filmId));
+        termsByFilmId.put(film.getFilmId(), terms);
+    }
+
+    private void remove(Long filmId) {
+        FilmTerms terms = termsByFilmId.remove(filmId);
+        if (terms == null) {
+            return;
+        }
+        terms.name().forEach(term -> removePosting(nameIndex, term, filmId.intValue()));
+        terms.description().forEach(term -> removePosting(descriptionIndex, term, filmId.intValue()));
+    }
+
+    private static void removePosting(Map<String, RoaringBitmap> index, String term, int filmId) {
+        RoaringBitmap films = index.get(term);
+        if (films != null) {
+            films.remove(filmId);
+            if (films.isEmpty()) {
+                index.remove(term);
+            }
+        }
+    }
+
+    private static RoaringBitmap postings(Map<String, RoaringBitmap> index, String term) {
+        RoaringBitmap films = index.get(term);
+        return films != null ? films : EMPTY;
+    }
+
+    private static boolean isIndexable(Long filmId) {
+        return filmId != null && filmId > 0 && filmId <= Integer.MAX_VALUE;
+    }
+
+    private record FilmTerms(Set<String> name, Set<String> description) {
+    }
+
+    private record SearchHit(long filmId, double score) {
+    }
+}
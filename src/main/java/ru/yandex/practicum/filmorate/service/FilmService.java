@@ -2,27 +2,34 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dto.request.FilmRequest;
+import ru.yandex.practicum.filmorate.dto.response.FilmBatchItemResponse;
+import ru.yandex.practicum.filmorate.dto.response.FilmBatchResponse;
 import ru.yandex.practicum.filmorate.dto.response.FilmResponse;
+import ru.yandex.practicum.filmorate.dto.response.FilmTitleResponse;
 import ru.yandex.practicum.filmorate.dto.response.GenreResponse;
 import ru.yandex.practicum.filmorate.dto.response.MpaResponse;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.mapper.CursorMapper;
 import ru.yandex.practicum.filmorate.mapper.FilmMapper;
 import ru.yandex.practicum.filmorate.mapper.GenreMapper;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.LikeResult;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -34,6 +41,45 @@ public class FilmService {
     private final UserStorage userStorage;
     private final MpaService mpaService;
     private final GenreService genreService;
+    private final FilmPopularityIndex popularityIndex;
+    private final FilmSearchIndex searchIndex;
+    private final FilmAutocompleteIndex autocompleteIndex;
+
+    @Value("${filmorate.pagination.default-limit:100}")
+    private int defaultPageLimit;
+
+    @Value("${filmorate.pagination.max-limit:1000}")
+    private int maxPageLimit;
+
+    @Value("${filmorate.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    @Value("${filmorate.import.max-batch-size:1000}")
+    private int maxImportBatchSize;
+
+    @Value("${filmorate.search.default-limit:20}")
+    private int defaultSearchLimit;
+
+    @Value("${filmorate.search.max-limit:100}")
+    private int maxSearchLimit;
+
+    @Value("${filmorate.autocomplete.default-limit:10}")
+    private int defaultAutocompleteLimit;
+
+    @Value("${filmorate.autocomplete.max-limit:50}")
+    private int maxAutocompleteLimit;
+
+    @Value("${filmorate.recommendations.neighbors:50}")
+    private int recommendationNeighbors;
+
+    @Value("${filmorate.recommendations.default-limit:10}")
+    private int defaultRecommendationLimit;
+
+    @Value("${filmorate.recommendations.max-limit:100}")
+    private int maxRecommendationLimit;
+
+    @Value("${filmorate.recommendations.max-candidates:10000}")
+    private int maxRecommendationCandidates;
 
     private static final LocalDate CINEMA_BIRTHDAY = LocalDate.of(1895, 12, 28);
 
@@ -42,87 +88,215 @@ public class FilmService {
         validateFilmRelations(filmRequest);
         Film film = FilmMapper.mapToFilm(filmRequest);
         film = filmStorage.addFilm(film);
+        popularityIndex.addFilm(film.getFilmId());
+        searchIndex.indexFilm(film);
+        autocompleteIndex.indexFilm(film);
         updateFilmGenres(film, filmRequest);
 
         return FilmMapper.mapToFilmResponse(
                 film,
-                getGenreResponses(film.getFilmId()),
+                filmRequest.getGenres() != null ? getGenreResponses(filmRequest) : List.of(),
                 getMpaResponse(film)
         );
     }
 
+    public FilmBatchResponse addFilms(List<FilmRequest> filmRequests) {
+        if (filmRequests == null || filmRequests.isEmpty()) {
+            throw new ValidationException("Список фильмов для импорта не может быть пустым");
+        }
+        if (filmRequests.size() > maxImportBatchSize) {
+            throw new ValidationException("За один запрос можно импортировать не более " + maxImportBatchSize + " фильмов");
+        }
+
+        FilmBatchItemResponse[] items = new FilmBatchItemResponse[filmRequests.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Film> validFilms = new ArrayList<>();
+        for (int i = 0; i < filmRequests.size(); i++) {
+            FilmRequest filmRequest = filmRequests.get(i);
+            try {
+                validateFilm(filmRequest);
+                validateFilmRelations(filmRequest);
+            } catch (ValidationException | NotFoundException e) {
+                items[i] = FilmBatchItemResponse.builder().index(i).error(e.getMessage()).build();
+                continue;
+            }
+            Film film = FilmMapper.mapToFilm(filmRequest);
+            film.setFilmId(null);
+            film.setGenres(filmRequest.getGenres() != null ? filmRequest.getGenres() : List.of());
+            validIndexes.add(i);
+            validFilms.add(film);
+        }
+
+        List<Film> savedFilms = filmStorage.addFilms(validFilms);
+        for (int i = 0; i < savedFilms.size(); i++) {
+            Film film = savedFilms.get(i);
+            int index = validIndexes.get(i);
+            popularityIndex.addFilm(film.getFilmId());
+            searchIndex.indexFilm(film);
+            FilmRequest filmRequest = filmRequests.get(index);
+            FilmResponse filmResponse = FilmMapper.mapToFilmResponse(
+                    film,
+                    filmRequest.getGenres() != null ? getGenreResponses(filmRequest) : List.of(),
+                    getMpaResponse(film)
+            );
+            items[index] = FilmBatchItemResponse.builder().index(index).film(filmResponse).build();
+        }
+        autocompleteIndex.indexFilms(savedFilms);
+        log.info("Импорт фильмов: добавлено {}, отклонено {}", savedFilms.size(), filmRequests.size() - savedFilms.size());
+
+        return FilmBatchResponse.builder()
+                .created(savedFilms.size())
+                .failed(filmRequests.size() - savedFilms.size())
+                .items(List.of(items))
+                .build();
+    }
+
     public FilmResponse updateFilm(FilmRequest filmRequest) {
         validateFilm(filmRequest);
         validateFilmRelations(filmRequest);
-        findFilmById(filmRequest.getId());
+        validateFilmExists(filmRequest.getId());
         Film film = FilmMapper.mapToFilm(filmRequest);
         film = filmStorage.updateFilm(film);
+        searchIndex.indexFilm(film);
+        autocompleteIndex.indexFilm(film);
         updateFilmGenres(film, filmRequest);
 
         return FilmMapper.mapToFilmResponse(
                 film,
-                getGenreResponses(film.getFilmId()),
+                filmRequest.getGenres() != null ? getGenreResponses(filmRequest) : getGenreResponses(film.getFilmId()),
                 getMpaResponse(film)
         );
     }
 
     public FilmResponse getFilmById(Long filmId) {
-        Film film = findFilmById(filmId);
-        return getFilmResponse(film);
+        Film film = filmStorage.findFilmWithGenresById(filmId)
+                .orElseThrow(() -> new NotFoundException("Фильм с ID " + filmId + " не найден"));
+        List<GenreResponse> genreResponses = film.getGenres().stream()
+                .map(GenreMapper::mapToGenreResponse)
+                .toList();
+        return FilmMapper.mapToFilmResponse(film, genreResponses, getMpaResponse(film));
+    }
+
+    // Запрос без параметров пагинации отдаёт первую страницу максимального размера
+    public Page<FilmResponse> findAllFilms() {
+        return findFilmsPage(null, maxPageLimit);
+    }
+
+    public Page<FilmResponse> findFilmsPage(String cursor, Integer limit) {
+        int pageLimit = LimitResolver.resolve(limit, defaultPageLimit, maxPageLimit);
+        List<Film> films = filmStorage.findFilmsPage(CursorMapper.mapToLastId(cursor), pageLimit + 1);
+        String nextCursor = null;
+        if (films.size() > pageLimit) {
+            films = films.subList(0, pageLimit);
+            nextCursor = CursorMapper.mapToCursor(films.getLast().getFilmId());
+        }
+
+        return Page.<FilmResponse>builder()
+                .items(getFilmResponses(films))
+                .nextCursor(nextCursor)
+                .build();
     }
 
-    public List<FilmResponse> findAllFilms() {
-        List<Film> films = filmStorage.findAllFilms();
-        return getFilmResponses(films);
+    public void exportFilms(Consumer<FilmResponse> consumer) {
+        filmStorage.streamFilmsWithGenres(exportFetchSize, film -> {
+            List<GenreResponse> genreResponses = film.getGenres().stream()
+                    .map(genre -> genreService.getGenreById(genre.getId()))
+                    .toList();
+            consumer.accept(FilmMapper.mapToFilmResponse(film, genreResponses, getMpaResponse(film)));
+        });
     }
 
     public List<FilmResponse> getTopPopularFilms(int count) {
         validateCountParameter(count);
 
-        List<Long> topFilmIds = filmStorage.findTopPopularFilmIds(count);
+        List<Long> topFilmIds = popularityIndex.getTopFilmIds(count);
         if (topFilmIds.isEmpty()) {
             return Collections.emptyList();
         }
 
-        List<Film> popularFilms = getFilmsByIds(topFilmIds);
+        List<Film> popularFilms = filmStorage.findFilmsByIds(topFilmIds);
         return getFilmResponses(popularFilms);
     }
 
-    public void addLike(Long filmId, Long userId) {
-        Film film = findFilmById(filmId);
-        validateUserExists(userId);
-        validateNotLiked(film.getFilmId(), userId);
+    public List<FilmResponse> getTopPopularFilms(int count, Integer genreId, Integer year, Integer mpaId) {
+        if (genreId == null && year == null && mpaId == null) {
+            return getTopPopularFilms(count);
+        }
+        validateCountParameter(count);
+        validatePopularFilters(genreId, year, mpaId);
+
+        List<Long> topFilmIds = filmStorage.findTopPopularFilmIds(count, genreId, year, mpaId);
+        if (topFilmIds.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        filmStorage.addLike(film.getFilmId(), userId);
+        return getFilmResponses(filmStorage.findFilmsByIds(topFilmIds));
     }
 
-    public void deleteLike(Long filmId, Long userId) {
-        findFilmById(filmId);
-        validateUserExists(userId);
-        validateLiked(filmId, userId);
+    public List<FilmResponse> searchFilms(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Поисковый запрос не может быть пустым");
+        }
+        int searchLimit = LimitResolver.resolve(limit, defaultSearchLimit, maxSearchLimit);
+
+        List<Long> filmIds = searchIndex.search(query, searchLimit);
+        log.debug("По запросу «{}» найдено фильмов: {}", query, filmIds.size());
+        if (filmIds.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        filmStorage.deleteLike(filmId, userId);
+        return getFilmResponses(filmStorage.findFilmsByIds(filmIds));
     }
 
-    private Film findFilmById(Long filmId) {
-        return filmStorage.findFilmById(filmId)
-                .orElseThrow(() -> new NotFoundException("Фильм с ID " + filmId + " не найден"));
+    public List<FilmTitleResponse> autocompleteFilms(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new ValidationException("Префикс для автодополнения не может быть пустым");
+        }
+        int autocompleteLimit = LimitResolver.resolve(limit, defaultAutocompleteLimit, maxAutocompleteLimit);
+        return autocompleteIndex.complete(prefix, autocompleteLimit);
+    }
+
+    public List<FilmResponse> getRecommendations(Long userId, Integer limit) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь с ID " + userId + " не найден");
+        }
+        int recommendationLimit = LimitResolver.resolve(limit, defaultRecommendationLimit, maxRecommendationLimit);
+
+        List<Long> filmIds = filmStorage.findRecommendedFilmIds(
+                userId, recommendationNeighbors, recommendationLimit, maxRecommendationCandidates);
+        if (filmIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        log.debug("Для пользователя {} подобрано фильмов: {}", userId, filmIds.size());
+
+        return getFilmResponses(filmStorage.findFilmsByIds(filmIds));
     }
 
-    private User validateUserExists(Long userId) {
-        return userStorage.findUserById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с ID " + userId + " не найден"));
+    public void addLike(Long filmId, Long userId) {
+        LikeResult result = filmStorage.addLike(filmId, userId);
+        validateLikeResult(result, filmId, userId);
+    }
+
+    public void deleteLike(Long filmId, Long userId) {
+        LikeResult result = filmStorage.deleteLike(filmId, userId);
+        validateLikeResult(result, filmId, userId);
     }
 
-    private void validateNotLiked(Long filmId, Long userId) {
-        if (filmStorage.isFilmLikedByUser(filmId, userId)) {
-            throw new ValidationException("Пользователь " + userId + " уже лайкнул этот фильм");
+    private void validateFilmExists(Long filmId) {
+        if (!filmStorage.existsById(filmId)) {
+            throw new NotFoundException("Фильм с ID " + filmId + " не найден");
         }
     }
 
-    private void validateLiked(Long filmId, Long userId) {
-        if (!filmStorage.isFilmLikedByUser(filmId, userId)) {
-            throw new ValidationException("Пользователь " + userId + " не лайкал этот фильм или уже удалил лайк");
+    private void validateLikeResult(LikeResult result, Long filmId, Long userId) {
+        switch (result) {
+            case FILM_NOT_FOUND -> throw new NotFoundException("Фильм с ID " + filmId + " не найден");
+            case USER_NOT_FOUND -> throw new NotFoundException("Пользователь с ID " + userId + " не найден");
+            case ALREADY_LIKED -> throw new ValidationException("Пользователь " + userId + " уже лайкнул этот фильм");
+            case NOT_LIKED -> throw new ValidationException(
+                    "Пользователь " + userId + " не лайкал этот фильм или уже удалил лайк");
+            case APPLIED -> {
+            }
         }
     }
 
@@ -132,8 +306,23 @@ public class FilmService {
         }
     }
 
+    private void validatePopularFilters(Integer genreId, Integer year, Integer mpaId) {
+        if (genreId != null) {
+            genreService.getGenreById(genreId);
+        }
+        if (mpaId != null) {
+            mpaService.getMpaRatingById(mpaId);
+        }
+        if (year != null && year < CINEMA_BIRTHDAY.getYear()) {
+            throw new ValidationException("Год выпуска не может быть раньше " + CINEMA_BIRTHDAY.getYear());
+        }
+    }
+
     private void validateFilm(FilmRequest filmRequest) {
         log.debug("Начало валидации фильма: {}", filmRequest);
+        if (filmRequest == null) {
+            throw new ValidationException("Фильм не может быть пустым");
+        }
         if (filmRequest.getName() == null || filmRequest.getName().isBlank()) {
             log.error("Ошибка валидации фильма: название не может быть пустым");
             throw new ValidationException("Название фильма не может быть пустым");
@@ -156,17 +345,22 @@ public class FilmService {
 
     private void validateFilmRelations(FilmRequest filmRequest) {
         if (filmRequest.getMpa() != null) {
+            if (filmRequest.getMpa().getId() == null) {
+                log.error("Рейтинг MPA передан без ID");
+                throw new ValidationException("Рейтинг MPA должен содержать ID");
+            }
             mpaService.getMpaRatingById(filmRequest.getMpa().getId());
         }
         if (filmRequest.getGenres() != null && !filmRequest.getGenres().isEmpty()) {
+            if (filmRequest.getGenres().stream().anyMatch(Objects::isNull)) {
+                log.error("В списке жанров передан пустой элемент");
+                throw new ValidationException("Жанр должен содержать ID");
+            }
             Set<Integer> genreIdsFromRequest = filmRequest.getGenres().stream()
                     .map(Genre::getId)
                     .collect(Collectors.toSet());
-            Set<Integer> genreIdsFromDb = genreService.getAllGenres().stream()
-                    .map(GenreResponse::getId)
-                    .collect(Collectors.toSet());
             Set<Integer> invalidIds = genreIdsFromRequest.stream()
-                    .filter(id -> !genreIdsFromDb.contains(id))
+                    .filter(id -> !genreService.genreExists(id))
                     .collect(Collectors.toSet());
             if (!invalidIds.isEmpty()) {
                 throw new NotFoundException("Переданы несуществующие жанры: " + invalidIds);
@@ -193,39 +387,40 @@ public class FilmService {
                 .toList();
     }
 
+    private List<GenreResponse> getGenreResponses(FilmRequest filmRequest) {
+        return filmRequest.getGenres().stream()
+                .map(Genre::getId)
+                .distinct()
+                .sorted()
+                .map(genreService::getGenreById)
+                .toList();
+    }
+
     private MpaResponse getMpaResponse(Film film) {
         return film.getMpaId() != null
                 ? mpaService.getMpaRatingById(film.getMpaId())
                 : null;
     }
 
-    private FilmResponse getFilmResponse(Film film) {
-        List<GenreResponse> genreResponses = getGenreResponses(film.getFilmId());
-        MpaResponse mpaRatingResponse = getMpaResponse(film);
-        return FilmMapper.mapToFilmResponse(film, genreResponses, mpaRatingResponse);
+    List<FilmResponse> getFilmResponses(List<Film> films) {
+        List<Long> filmIdsWithoutGenres = films.stream()
+                .filter(film -> film.getGenres() == null)
+                .map(Film::getFilmId)
+                .toList();
+        return getFilmResponses(films, genreService.getFilmGenresMap(filmIdsWithoutGenres));
     }
 
-    private List<FilmResponse> getFilmResponses(List<Film> films) {
-        Map<Long, List<Genre>> allFilmsWithGenres = genreService.getFilmGenresMap();
-        Map<Integer, MpaResponse> allMpaRatings = mpaService.getAllMpaRatings().stream()
-                .collect(Collectors.toMap(MpaResponse::getId, Function.identity()));
-
+    private List<FilmResponse> getFilmResponses(List<Film> films, Map<Long, List<Genre>> allFilmsWithGenres) {
         return films.stream()
                 .map(film -> {
-                    List<GenreResponse> genreResponses = allFilmsWithGenres.getOrDefault(film.getFilmId(), Collections.emptyList())
+                    List<Genre> genres = film.getGenres() != null
+                            ? film.getGenres()
+                            : allFilmsWithGenres.getOrDefault(film.getFilmId(), Collections.emptyList());
+                    List<GenreResponse> genreResponses = genres
                             .stream()
                             .map(GenreMapper::mapToGenreResponse)
                             .toList();
-                    MpaResponse mpaResponse = film.getMpaId() != null
-                            ? allMpaRatings.get(film.getMpaId())
-                            : null;
-                    return FilmMapper.mapToFilmResponse(film, genreResponses, mpaResponse);
+                    return FilmMapper.mapToFilmResponse(film, genreResponses, getMpaResponse(film));
                 }).toList();
     }
-
-    private List<Film> getFilmsByIds(List<Long> filmIds) {
-        return filmIds.stream()
-                .map(this::findFilmById)
-                .toList();
-    }
 }
@@ -2,14 +2,21 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.dto.response.FriendSuggestionResponse;
+import ru.yandex.practicum.filmorate.dto.response.FriendSuggestionsResponse;
 import ru.yandex.practicum.filmorate.dto.response.UserResponse;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
-import ru.yandex.practicum.filmorate.mapper.UserMapper;
-import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.FriendSuggestionResult;
 import ru.yandex.practicum.filmorate.storage.FriendShipStorage;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -19,6 +26,15 @@ public class FriendShipService {
     private final UserService userService;
     private final FriendShipStorage friendShipStorage;
 
+    @Value("${filmorate.friends.suggestions.default-limit:10}")
+    private int defaultSuggestionLimit;
+
+    @Value("${filmorate.friends.suggestions.max-limit:100}")
+    private int maxSuggestionLimit;
+
+    @Value("${filmorate.friends.suggestions.budget-ms:200}")
+    private long suggestionBudgetMs;
+
     public void addFriend(Long userId, Long friendId) {
         validateNotSameUser(userId, friendId);
         userService.validateUserExist(userId);
@@ -40,18 +56,46 @@ public class FriendShipService {
 
     public List<UserResponse> getFriends(Long userId) {
         userService.validateUserExist(userId);
-        List<User> users = friendShipStorage.getFriends(userId);
+        List<Long> friendIds = friendShipStorage.getFriendIds(userId);
 
-        return UserMapper.mapToListOfUserResponses(users);
+        return userService.getUsersByIds(friendIds);
     }
 
     public List<UserResponse> getCommonFriends(Long userId, Long otherUserId) {
         validateNotSameUser(userId, otherUserId);
         userService.validateUserExist(userId);
         userService.validateUserExist(otherUserId);
-        List<User> users = friendShipStorage.getCommonFriends(userId, otherUserId);
+        List<Long> friendIds = friendShipStorage.getCommonFriendIds(userId, otherUserId);
+
+        return userService.getUsersByIds(friendIds);
+    }
+
+    public FriendSuggestionsResponse getFriendSuggestions(Long userId, Integer limit) {
+        userService.validateUserExist(userId);
+        int suggestionLimit = LimitResolver.resolve(limit, defaultSuggestionLimit, maxSuggestionLimit);
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(suggestionBudgetMs);
+        FriendSuggestionResult result = friendShipStorage.findFriendSuggestions(userId, suggestionLimit, deadlineNanos);
+        if (result.isTruncated()) {
+            log.warn("Подбор друзей для пользователя {} прерван по бюджету {} мс", userId, suggestionBudgetMs);
+        }
+
+        List<Long> suggestedIds = result.getSuggestions().stream()
+                .map(FriendSuggestion::getUserId)
+                .toList();
+        Map<Long, UserResponse> usersById = userService.getUsersByIds(suggestedIds).stream()
+                .collect(Collectors.toMap(UserResponse::getId, Function.identity()));
+        List<FriendSuggestionResponse> items = result.getSuggestions().stream()
+                .filter(suggestion -> usersById.containsKey(suggestion.getUserId()))
+                .map(suggestion -> FriendSuggestionResponse.builder()
+                        .user(usersById.get(suggestion.getUserId()))
+                        .mutualFriends(suggestion.getMutualFriends())
+                        .build())
+                .toList();
 
-        return UserMapper.mapToListOfUserResponses(users);
+        return FriendSuggestionsResponse.builder()
+                .items(items)
+                .truncated(result.isTruncated())
+                .build();
     }
 
     private void validateNotSameUser(Long firstUser, Long secondUser) {
@@ -8,6 +8,8 @@ import ru.yandex.practicum.filmorate.mapper.GenreMapper;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.GenreStorage;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -16,20 +18,28 @@ import java.util.Map;
 public class GenreService {
 
     private final GenreStorage genreStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     public List<GenreResponse> getAllGenres() {
-        return genreStorage.findAllGenres().stream()
+        return referenceDataRegistry.getAllGenres().stream()
                 .map(GenreMapper::mapToGenreResponse)
                 .toList();
     }
 
     public GenreResponse getGenreById(int id) {
-        Genre genre = genreStorage.findGenreById(id)
+        Genre genre = referenceDataRegistry.findGenreById(id)
                 .orElseThrow(() -> new NotFoundException("Жанр с ID: " + id + " не найден"));
         return GenreMapper.mapToGenreResponse(genre);
     }
 
-    public Map<Long, List<Genre>> getFilmGenresMap() {
-        return genreStorage.getFilmGenres();
+    public boolean genreExists(int id) {
+        return referenceDataRegistry.findGenreById(id).isPresent();
     }
-}
\ No newline at end of file
+
+    public Map<Long, List<Genre>> getFilmGenresMap(Collection<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return genreStorage.getFilmGenres(filmIds);
+    }
+}
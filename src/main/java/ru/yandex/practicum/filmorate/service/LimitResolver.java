@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class LimitResolver {
+
+    static int resolve(Integer limit, int defaultLimit, int maxLimit) {
+        if (limit == null) {
+            return Math.min(defaultLimit, maxLimit);
+        }
+        if (limit <= 0) {
+            throw new ValidationException("Параметр limit должен быть положительным числом");
+        }
+        return Math.min(limit, maxLimit);
+    }
+}
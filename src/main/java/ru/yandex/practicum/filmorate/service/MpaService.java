@@ -5,7 +5,6 @@ import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dto.response.MpaResponse;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.MpaMapper;
-import ru.yandex.practicum.filmorate.storage.MpaStorage;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -14,18 +13,18 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MpaService {
 
-    private final MpaStorage mpaStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     public List<MpaResponse> getAllMpaRatings() {
-        return mpaStorage.findAllMpaRatings().stream()
+        return referenceDataRegistry.getAllMpaRatings().stream()
                 .map(MpaMapper::mapToMpaResponse)
                 .collect(Collectors.toList());
     }
 
     public MpaResponse getMpaRatingById(int id) {
         return MpaMapper.mapToMpaResponse(
-                mpaStorage.findMpaRatingById(id)
+                referenceDataRegistry.findMpaRatingById(id)
                         .orElseThrow(() -> new NotFoundException("Рейтинг MPA с ID: " + id + " не найден"))
         );
     }
-}
\ No newline at end of file
+}
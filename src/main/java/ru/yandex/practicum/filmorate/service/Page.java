@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+// Не часть API: контроллер отдаёт items телом ответа, а курсор — заголовком X-Next-Cursor
+@Value
+@Builder
+public class Page<T> {
+    List<T> items;
+    String nextCursor;
+}
@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataRegistry {
+
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), new Genre[0], List.of(), new MpaRating[0]);
+
+    @PostConstruct
+    public void refresh() {
+        List<Genre> genres = genreStorage.findAllGenres().stream()
+                .sorted(Comparator.comparingInt(Genre::getId))
+                .toList();
+        List<MpaRating> mpaRatings = mpaStorage.findAllMpaRatings().stream()
+                .sorted(Comparator.comparingInt(MpaRating::getId))
+                .toList();
+        snapshot = new Snapshot(
+                genres,
+                indexById(genres, Genre::getId, new Genre[maxId(genres, Genre::getId) + 1]),
+                mpaRatings,
+                indexById(mpaRatings, MpaRating::getId, new MpaRating[maxId(mpaRatings, MpaRating::getId) + 1])
+        );
+        log.info("Справочники загружены: {} жанров, {} рейтингов MPA", genres.size(), mpaRatings.size());
+    }
+
+    public List<Genre> getAllGenres() {
+        return snapshot.genres();
+    }
+
+    public Optional<Genre> findGenreById(int id) {
+        return Optional.ofNullable(byId(snapshot.genresById(), id));
+    }
+
+    public List<MpaRating> getAllMpaRatings() {
+        return snapshot.mpaRatings();
+    }
+
+    public Optional<MpaRating> findMpaRatingById(int id) {
+        return Optional.ofNullable(byId(snapshot.mpaRatingsById(), id));
+    }
+
+    private static <T> T byId(T[] valuesById, int id) {
+        return id >= 0 && id < valuesById.length ? valuesById[id] : null;
+    }
+
+    private static <T> int maxId(List<T> values, ToIntFunction<T> idExtractor) {
+        return values.stream().mapToInt(idExtractor).max().orElse(0);
+    }
+
+    private static <T> T[] indexById(List<T> values, ToIntFunction<T> idExtractor, T[] valuesById) {
+        for (T value : values) {
+            valuesById[idExtractor.applyAsInt(value)] = value;
+        }
+        return valuesById;
+    }
+
+    private record Snapshot(
+            List<Genre> genres,
+            Genre[] genresById,
+            List<MpaRating> mpaRatings,
+            MpaRating[] mpaRatingsById
+    ) {
+    }
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class SearchTokenizer {
+
+    // Токен — непрерывная последовательность букв или цифр любого алфавита, ё приводится к е
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                token.appendCodePoint(normalize(codePoint));
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    // Нормализованная строка: токены через один пробел; завершающий разделитель сохраняется как пробел
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSeparator = false;
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (pendingSeparator && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                pendingSeparator = false;
+                normalized.appendCodePoint(normalize(codePoint));
+            } else {
+                pendingSeparator = true;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (pendingSeparator && !normalized.isEmpty()) {
+            normalized.append(' ');
+        }
+        return normalized.toString();
+    }
+
+    private static int normalize(int codePoint) {
+        int lowerCase = Character.toLowerCase(codePoint);
+        return lowerCase == 'ё' ? 'е' : lowerCase;
+    }
+}
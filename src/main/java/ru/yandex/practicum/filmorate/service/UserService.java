@@ -2,11 +2,13 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dto.request.UserRequest;
 import ru.yandex.practicum.filmorate.dto.response.UserResponse;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.mapper.CursorMapper;
 import ru.yandex.practicum.filmorate.mapper.UserMapper;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
@@ -21,6 +23,12 @@ public class UserService {
 
     private final UserStorage userStorage;
 
+    @Value("${filmorate.pagination.default-limit:100}")
+    private int defaultPageLimit;
+
+    @Value("${filmorate.pagination.max-limit:1000}")
+    private int maxPageLimit;
+
     public UserResponse addUser(UserRequest userRequest) {
         validateUser(userRequest);
         setNameFromLoginIfEmpty(userRequest);
@@ -40,15 +48,37 @@ public class UserService {
         return UserMapper.mapToUserResponse(user);
     }
 
-    public List<UserResponse> findAllUsers() {
-        List<User> users = userStorage.findAllUsers();
+    // Запрос без параметров пагинации отдаёт первую страницу максимального размера
+    public Page<UserResponse> findAllUsers() {
+        return findUsersPage(null, maxPageLimit);
+    }
+
+    public Page<UserResponse> findUsersPage(String cursor, Integer limit) {
+        int pageLimit = LimitResolver.resolve(limit, defaultPageLimit, maxPageLimit);
+        List<User> users = userStorage.findUsersPage(CursorMapper.mapToLastId(cursor), pageLimit + 1);
+        String nextCursor = null;
+        if (users.size() > pageLimit) {
+            users = users.subList(0, pageLimit);
+            nextCursor = CursorMapper.mapToCursor(users.getLast().getUserId());
+        }
 
-        return UserMapper.mapToListOfUserResponses(users);
+        return Page.<UserResponse>builder()
+                .items(UserMapper.mapToListOfUserResponses(users))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    public List<UserResponse> getUsersByIds(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return UserMapper.mapToListOfUserResponses(userStorage.findUsersByIds(userIds));
     }
 
     public void validateUserExist(Long userId) {
-        userStorage.findUserById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с ID " + userId + " не найден"));
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь с ID " + userId + " не найден");
+        }
     }
 
     private void validateUser(UserRequest userRequest) {
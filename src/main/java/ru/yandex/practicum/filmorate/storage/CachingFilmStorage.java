@@ -0,0 +1,211 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Slf4j
+@Primary
+@Repository
+@ConditionalOnProperty(name = "filmorate.cache.films.enabled", havingValue = "true")
+public class CachingFilmStorage implements FilmStorage, MeterBinder {
+
+    private static final int BASE_FILM_WEIGHT = 128;
+    private static final int GENRE_WEIGHT = 48;
+
+    private final FilmDbStorage delegate;
+    private final GenreStorage genreStorage;
+    private final Cache<Long, Film> films;
+
+    public CachingFilmStorage(
+            FilmDbStorage delegate,
+            GenreStorage genreStorage,
+            @Value("${filmorate.cache.films.max-weight-bytes:16777216}") long maxWeightBytes
+    ) {
+        this.delegate = delegate;
+        this.genreStorage = genreStorage;
+        this.films = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long filmId, Film film) -> weigh(film))
+                .recordStats()
+                .build();
+        log.info("Включён кэш фильмов объёмом до {} байт", maxWeightBytes);
+    }
+
+    // Статистика попаданий публикуется как cache.gets, cache.size и cache.evictions с тегом cache=films
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, films, "films");
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        return delegate.addFilm(film);
+    }
+
+    @Override
+    public List<Film> addFilms(List<Film> filmsToAdd) {
+        return delegate.addFilms(filmsToAdd);
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        Film updated = delegate.updateFilm(film);
+        CacheInvalidation.invalidate(films, film.getFilmId());
+        return updated;
+    }
+
+    @Override
+    public List<Film> findFilmsPage(long afterFilmId, int limit) {
+        return delegate.findFilmsPage(afterFilmId, limit);
+    }
+
+    @Override
+    public boolean existsById(Long filmId) {
+        if (filmId != null && films.getIfPresent(filmId) != null) {
+            return true;
+        }
+        return delegate.existsById(filmId);
+    }
+
+    @Override
+    public Optional<Film> findFilmById(Long filmId) {
+        return findFilmWithGenresById(filmId);
+    }
+
+    @Override
+    public void streamFilmsWithGenres(int fetchSize, Consumer<Film> consumer) {
+        delegate.streamFilmsWithGenres(fetchSize, consumer);
+    }
+
+    @Override
+    public Optional<Film> findFilmWithGenresById(Long filmId) {
+        Film film = films.get(filmId, id -> delegate.findFilmWithGenresById(id).orElse(null));
+        return Optional.ofNullable(film).map(CachingFilmStorage::copyOf);
+    }
+
+    @Override
+    public List<Film> findFilmsByIds(Collection<Long> filmIds) {
+        Map<Long, Film> found = films.getAll(filmIds, this::loadFilms);
+        List<Film> result = new ArrayList<>(found.size());
+        for (Long filmId : filmIds) {
+            Film film = found.get(filmId);
+            if (film != null) {
+                result.add(copyOf(film));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Long> findTopPopularFilmIds(int count, Integer genreId, Integer year, Integer mpaId) {
+        return delegate.findTopPopularFilmIds(count, genreId, year, mpaId);
+    }
+
+    @Override
+    public void addPersistedLikeListener(PersistedLikeListener listener) {
+        delegate.addPersistedLikeListener(listener);
+    }
+
+    @Override
+    public List<Long> findRecommendedFilmIds(Long userId, int neighbors, int limit, int maxCandidates) {
+        return delegate.findRecommendedFilmIds(userId, neighbors, limit, maxCandidates);
+    }
+
+    @Override
+    public Map<Long, Integer> findLikeCounts() {
+        return delegate.findLikeCounts();
+    }
+
+    @Override
+    public void updateFilmGenres(Long filmId, Set<Integer> genreIds) {
+        delegate.updateFilmGenres(filmId, genreIds);
+        CacheInvalidation.invalidate(films, filmId);
+    }
+
+    @Override
+    public List<Genre> getFilmGenres(Long filmId) {
+        return findFilmWithGenresById(filmId)
+                .map(Film::getGenres)
+                .orElseGet(ArrayList::new);
+    }
+
+    @Override
+    public void deleteAllFilmGenres(Long filmId) {
+        delegate.deleteAllFilmGenres(filmId);
+        CacheInvalidation.invalidate(films, filmId);
+    }
+
+    @Override
+    public boolean isFilmLikedByUser(Long filmId, Long userId) {
+        return delegate.isFilmLikedByUser(filmId, userId);
+    }
+
+    @Override
+    public LikeResult addLike(Long filmId, Long userId) {
+        return delegate.addLike(filmId, userId);
+    }
+
+    @Override
+    public LikeResult deleteLike(Long filmId, Long userId) {
+        return delegate.deleteLike(filmId, userId);
+    }
+
+    @Override
+    public int reconcileLikeCounts() {
+        return delegate.reconcileLikeCounts();
+    }
+
+    private Map<Long, Film> loadFilms(Set<? extends Long> filmIds) {
+        List<Long> ids = new ArrayList<>(filmIds);
+        List<Film> loaded = delegate.findFilmsByIds(ids);
+        Map<Long, List<Genre>> genres = genreStorage.getFilmGenres(ids);
+        Map<Long, Film> result = new HashMap<>();
+        for (Film film : loaded) {
+            film.setGenres(genres.getOrDefault(film.getFilmId(), new ArrayList<>()));
+            result.put(film.getFilmId(), film);
+        }
+        return result;
+    }
+
+    private static int weigh(Film film) {
+        int weight = BASE_FILM_WEIGHT;
+        weight += film.getName() != null ? film.getName().length() * 2 : 0;
+        weight += film.getDescription() != null ? film.getDescription().length() * 2 : 0;
+        weight += film.getGenres() != null ? film.getGenres().size() * GENRE_WEIGHT : 0;
+        return weight;
+    }
+
+    private static Film copyOf(Film film) {
+        return Film.builder()
+                .filmId(film.getFilmId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .mpaId(film.getMpaId())
+                .genres(new ArrayList<>(film.getGenres().stream()
+                        .map(genre -> new Genre(genre.getId(), genre.getName()))
+                        .toList()))
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@Slf4j
+@Primary
+@Repository
+@ConditionalOnProperty(name = "filmorate.cache.users.enabled", havingValue = "true")
+public class CachingUserStorage implements UserStorage, MeterBinder {
+
+    private final UserDbStorage delegate;
+    private final Cache<Long, User> users;
+
+    public CachingUserStorage(
+            UserDbStorage delegate,
+            @Value("${filmorate.cache.users.max-size:100000}") long maxSize
+    ) {
+        this.delegate = delegate;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        log.info("Включён кэш пользователей размером до {} записей", maxSize);
+    }
+
+    // Статистика попаданий публикуется как cache.gets, cache.size и cache.evictions с тегом cache=users
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "users");
+    }
+
+    @Override
+    public User addUser(User user) {
+        User added = delegate.addUser(user);
+        CacheInvalidation.invalidate(users, added.getUserId());
+        return added;
+    }
+
+    @Override
+    public User updateUser(User user) {
+        User updated = delegate.updateUser(user);
+        CacheInvalidation.invalidate(users, user.getUserId());
+        return updated;
+    }
+
+    @Override
+    public List<User> findUsersPage(long afterUserId, int limit) {
+        return delegate.findUsersPage(afterUserId, limit);
+    }
+
+    @Override
+    public boolean existsById(Long userId) {
+        if (userId != null && users.getIfPresent(userId) != null) {
+            return true;
+        }
+        return delegate.existsById(userId);
+    }
+
+    @Override
+    public Optional<User> findUserById(Long userId) {
+        User user = users.get(userId, id -> delegate.findUserById(id).orElse(null));
+        return Optional.ofNullable(user).map(CachingUserStorage::copyOf);
+    }
+
+    @Override
+    public List<User> findUsersByIds(Collection<Long> userIds) {
+        Map<Long, User> found = users.getAll(userIds, this::loadUsers);
+        List<User> result = new ArrayList<>(found.size());
+        for (Long userId : userIds) {
+            User user = found.get(userId);
+            if (user != null) {
+                result.add(copyOf(user));
+            }
+        }
+        return result;
+    }
+
+    private Map<Long, User> loadUsers(Set<? extends Long> userIds) {
+        Map<Long, User> result = new HashMap<>();
+        delegate.findUsersByIds(new ArrayList<>(userIds))
+                .forEach(user -> result.put(user.getUserId(), user));
+        return result;
+    }
+
+    private static User copyOf(User user) {
+        return User.builder()
+                .userId(user.getUserId())
+                .email(user.getEmail())
+                .login(user.getLogin())
+                .name(user.getName())
+                .birthday(user.getBirthday())
+                .build();
+    }
+}
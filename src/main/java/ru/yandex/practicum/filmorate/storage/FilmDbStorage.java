@@ -1,17 +1,35 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.LikeResult;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -19,16 +37,51 @@ import java.util.stream.Collectors;
 public class FilmDbStorage implements FilmStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
     private final SimpleJdbcInsert simpleJdbcInsert;
     private final RowMapper<Film> filmMapper;
+    private final LikeWriteBehindBuffer likeBuffer;
+    private final IdExistenceIndex filmIds = new IdExistenceIndex();
+    private final LikeMatrix likeMatrix = new LikeMatrix();
+    private final List<PersistedLikeListener> likeListeners = new CopyOnWriteArrayList<>();
 
     @Autowired
-    public FilmDbStorage(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate, RowMapper<Film> filmMapper) {
+    public FilmDbStorage(
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            RowMapper<Film> filmMapper,
+            ObjectProvider<LikeWriteBehindBuffer> likeBufferProvider
+    ) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
         this.simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
                 .withTableName("films")
+                .usingColumns("name", "description", "release_date", "duration", "rating_id")
                 .usingGeneratedKeyColumns("film_id");
         this.filmMapper = filmMapper;
+        this.likeBuffer = likeBufferProvider.getIfAvailable();
+        if (likeBuffer != null) {
+            likeBuffer.onPersisted(this::likePersisted);
+        }
+    }
+
+    @PostConstruct
+    public void loadFilmIds() {
+        int[] count = new int[1];
+        filmIds.rebuild(consumer -> jdbcTemplate.query("SELECT film_id FROM films", rs -> {
+            consumer.accept(rs.getLong(1));
+            count[0]++;
+        }));
+        log.info("Загружен индекс идентификаторов фильмов: {} записей", count[0]);
+    }
+
+    @PostConstruct
+    public void loadLikeMatrix() {
+        likeMatrix.rebuild(sink -> jdbcTemplate.query("SELECT user_id, film_id FROM likes",
+                rs -> {
+                    sink.accept(rs.getLong("user_id"), rs.getLong("film_id"));
+                }));
+        log.info("Загружена матрица лайков: {} записей", likeMatrix.likeCount());
     }
 
     @Override
@@ -41,11 +94,62 @@ public class FilmDbStorage implements FilmStorage {
         parameters.put("rating_id", film.getMpaId());
         long id = simpleJdbcInsert.executeAndReturnKey(parameters).longValue();
         film.setFilmId(id);
+        filmIds.addAfterCommit(id);
         log.info("В таблицу films добавлен фильм с ID: {}", id);
 
         return film;
     }
 
+    @Override
+    @Transactional
+    public List<Film> addFilms(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        String sql = "INSERT INTO films (name, description, release_date, duration, rating_id) VALUES (?, ?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(sql, new String[]{"film_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Film film = films.get(i);
+                        ps.setString(1, film.getName());
+                        ps.setString(2, film.getDescription());
+                        ps.setObject(3, film.getReleaseDate());
+                        ps.setObject(4, film.getDuration(), Types.INTEGER);
+                        ps.setObject(5, film.getMpaId(), Types.INTEGER);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                },
+                keyHolder
+        );
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < films.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            films.get(i).setFilmId(id.longValue());
+            filmIds.addAfterCommit(id.longValue());
+        }
+
+        List<Object[]> genreBatchArgs = new ArrayList<>();
+        for (Film film : films) {
+            if (film.getGenres() != null) {
+                film.getGenres().stream()
+                        .map(Genre::getId)
+                        .distinct()
+                        .forEach(genreId -> genreBatchArgs.add(new Object[]{film.getFilmId(), genreId}));
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO film_genre (film_id, genre_id) VALUES (?, ?)", genreBatchArgs);
+        log.info("Пакетно добавлено фильмов: {}, связей с жанрами: {}", films.size(), genreBatchArgs.size());
+
+        return films;
+    }
+
     @Override
     public void updateFilmGenres(Long filmId, Set<Integer> genreIds) {
         jdbcTemplate.update("DELETE FROM film_genre WHERE film_id = ?", filmId);
@@ -104,13 +208,30 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
-    public List<Film> findAllFilms() {
-        String sql = "SELECT film_id, name, description, release_date, duration, rating_id FROM films";
-        List<Film> films = jdbcTemplate.query(sql, filmMapper);
-        log.debug("Найдены фильмы: {}", films);
+    public List<Film> findFilmsPage(long afterFilmId, int limit) {
+        String sql = "SELECT film_id, name, description, release_date, duration, rating_id " +
+                "FROM films WHERE film_id > ? ORDER BY film_id LIMIT ?";
+        List<Film> films = jdbcTemplate.query(sql, filmMapper, afterFilmId, limit);
+        log.debug("Найдено {} фильмов после ID: {}", films.size(), afterFilmId);
         return films;
     }
 
+    @Override
+    public boolean existsById(Long filmId) {
+        if (filmId == null) {
+            return false;
+        }
+        if (filmIds.contains(filmId)) {
+            return true;
+        }
+        String sql = "SELECT EXISTS(SELECT 1 FROM films WHERE film_id = ?)";
+        boolean exists = Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, filmId));
+        if (exists) {
+            filmIds.addAfterCommit(filmId);
+        }
+        return exists;
+    }
+
     @Override
     public Optional<Film> findFilmById(Long filmId) {
         String sql = "SELECT film_id, name, description, release_date, duration, rating_id " +
@@ -130,55 +251,271 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
-    public List<Long> findTopPopularFilmIds(int count) {
+    public void streamFilmsWithGenres(int fetchSize, Consumer<Film> consumer) {
+        String filmsSql = "SELECT film_id, name, description, release_date, duration, rating_id " +
+                "FROM films ORDER BY film_id";
+        String genresSql = "SELECT film_id, genre_id FROM film_genre ORDER BY film_id, genre_id";
+        // Оба курсора идут по первичным ключам, жанры подклеиваются слиянием без сортировки в памяти
+        long streamedFilms = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (PreparedStatement filmsStatement = prepareForwardOnly(connection, filmsSql, fetchSize);
+                 PreparedStatement genresStatement = prepareForwardOnly(connection, genresSql, fetchSize);
+                 ResultSet films = filmsStatement.executeQuery();
+                 ResultSet genres = genresStatement.executeQuery()) {
+                long count = 0;
+                boolean hasGenre = genres.next();
+                while (films.next()) {
+                    Film film = filmMapper.mapRow(films, (int) count);
+                    List<Genre> filmGenres = new ArrayList<>();
+                    while (hasGenre && genres.getLong("film_id") < film.getFilmId()) {
+                        hasGenre = genres.next();
+                    }
+                    while (hasGenre && genres.getLong("film_id") == film.getFilmId()) {
+                        filmGenres.add(Genre.builder().id(genres.getInt("genre_id")).build());
+                        hasGenre = genres.next();
+                    }
+                    film.setGenres(filmGenres);
+                    consumer.accept(film);
+                    count++;
+                }
+                return count;
+            }
+        });
+        log.info("Выгружено фильмов потоком: {}", streamedFilms);
+    }
+
+    private PreparedStatement prepareForwardOnly(Connection connection, String sql, int fetchSize) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(
+                sql,
+                ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY
+        );
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+
+    @Override
+    public Optional<Film> findFilmWithGenresById(Long filmId) {
         String sql = """
-                SELECT f.film_id
+                SELECT f.film_id, f.name, f.description, f.release_date, f.duration, f.rating_id,
+                       g.genre_id, g.name AS genre_name
                 FROM films f
-                LEFT JOIN likes l ON f.film_id = l.film_id
-                GROUP BY f.film_id
-                ORDER BY COUNT(l.user_id) DESC, f.film_id DESC
-                LIMIT ?
+                LEFT JOIN film_genre fg ON f.film_id = fg.film_id
+                LEFT JOIN genres g ON fg.genre_id = g.genre_id
+                WHERE f.film_id = ?
+                ORDER BY g.genre_id
                 """;
-        List<Long> topPopularFilmIds = jdbcTemplate.queryForList(sql, Long.class, count);
-        log.debug("Найден следующий список популярных фильмов: {}", topPopularFilmIds);
+        Optional<Film> film = Optional.ofNullable(jdbcTemplate.query(sql, rs -> {
+            Film result = null;
+            while (rs.next()) {
+                if (result == null) {
+                    result = filmMapper.mapRow(rs, rs.getRow());
+                    result.setGenres(new ArrayList<>());
+                }
+                int genreId = rs.getInt("genre_id");
+                if (!rs.wasNull()) {
+                    result.getGenres().add(new Genre(genreId, rs.getString("genre_name")));
+                }
+            }
+            return result;
+        }, filmId));
+        log.debug("Фильм с ID: {} {}", filmId, film.isPresent() ? "найден вместе с жанрами" : "не найден");
+        return film;
+    }
+
+    @Override
+    public List<Film> findFilmsByIds(Collection<Long> filmIds) {
+        String sql = "SELECT film_id, name, description, release_date, duration, rating_id " +
+                "FROM films WHERE film_id IN (:filmIds)";
+        Map<Long, Film> filmsById = new HashMap<>();
+        for (List<Long> chunk : QueryChunks.partition(filmIds)) {
+            namedJdbcTemplate.query(sql, Map.of("filmIds", chunk), filmMapper)
+                    .forEach(film -> filmsById.put(film.getFilmId(), film));
+        }
+        List<Film> films = filmIds.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        log.debug("Найдено {} фильмов из {} запрошенных", films.size(), filmIds.size());
+        return films;
+    }
+
+    @Override
+    public List<Long> findTopPopularFilmIds(int count, Integer genreId, Integer year, Integer mpaId) {
+        // Фильтры добавляются только при наличии, чтобы условия оставались индексируемыми.
+        // Жанр проверяется через EXISTS: так H2 идёт по индексу популярности и останавливается на LIMIT
+        StringBuilder sql = new StringBuilder("SELECT f.film_id FROM films f");
+        Map<String, Object> params = new HashMap<>();
+        List<String> conditions = new ArrayList<>();
+        if (genreId != null) {
+            conditions.add("EXISTS (SELECT 1 FROM film_genre fg WHERE fg.film_id = f.film_id AND fg.genre_id = :genreId)");
+            params.put("genreId", genreId);
+        }
+        if (year != null) {
+            conditions.add("f.release_date >= :yearStart AND f.release_date < :nextYearStart");
+            params.put("yearStart", LocalDate.of(year, 1, 1));
+            params.put("nextYearStart", LocalDate.of(year + 1, 1, 1));
+        }
+        if (mpaId != null) {
+            conditions.add("f.rating_id = :mpaId");
+            params.put("mpaId", mpaId);
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        // При фиксированном рейтинге сортировка совпадает с индексом (rating_id, like_count, film_id)
+        sql.append(mpaId != null ? " ORDER BY f.rating_id, " : " ORDER BY ");
+        sql.append("f.like_count DESC, f.film_id DESC LIMIT :count");
+        params.put("count", count);
+
+        List<Long> topPopularFilmIds = namedJdbcTemplate.queryForList(sql.toString(), params, Long.class);
+        log.debug("Найден список популярных фильмов (жанр: {}, год: {}, рейтинг: {}): {}",
+                genreId, year, mpaId, topPopularFilmIds);
         return topPopularFilmIds;
     }
 
+    @Override
+    public Map<Long, Integer> findLikeCounts() {
+        String sql = "SELECT film_id, like_count FROM films";
+        return jdbcTemplate.query(sql, rs -> {
+            Map<Long, Integer> likeCounts = new HashMap<>();
+            while (rs.next()) {
+                likeCounts.put(rs.getLong("film_id"), rs.getInt("like_count"));
+            }
+            return likeCounts;
+        });
+    }
+
     @Override
     public boolean isFilmLikedByUser(Long filmId, Long userId) {
+        boolean result = likeBuffer != null
+                ? likeBuffer.isLiked(filmId, userId, this::findLikeState)
+                : isLikePersisted(filmId, userId);
+        log.debug("Фильм с ID: {} лайкнут пользователем с ID: {}: {}", filmId, userId, result);
+        return result;
+    }
+
+    private boolean isLikePersisted(Long filmId, Long userId) {
         String sql = "SELECT EXISTS(SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)";
-        boolean result = Boolean.TRUE.equals(
+        return Boolean.TRUE.equals(
                 jdbcTemplate.queryForObject(sql, Boolean.class, filmId, userId)
         );
-        log.debug("Фильм с ID: {} уже лайкнут пользователем с ID: {}", filmId, userId);
+    }
+
+    private LikeState findLikeState(Long filmId, Long userId) {
+        String sql = """
+                SELECT EXISTS(SELECT 1 FROM films WHERE film_id = ?) AS film_exists,
+                       EXISTS(SELECT 1 FROM users WHERE user_id = ?) AS user_exists,
+                       EXISTS(SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?) AS liked
+                """;
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new LikeState(
+                rs.getBoolean("film_exists"),
+                rs.getBoolean("user_exists"),
+                rs.getBoolean("liked")
+        ), filmId, userId, filmId, userId);
+    }
+
+    @Override
+    @Transactional
+    public LikeResult addLike(Long filmId, Long userId) {
+        LikeResult result = likeBuffer != null
+                ? likeBuffer.addLike(filmId, userId, this::findLikeState)
+                : insertLike(filmId, userId);
+        // С буфером индексы в памяти обновляются после успешного сброса, без него — после фиксации транзакции
+        if (result == LikeResult.APPLIED && likeBuffer == null) {
+            TransactionHooks.afterCommit(() -> likePersisted(filmId, userId, true));
+        }
+        log.debug("Добавление лайка фильму с ID: {} пользователем с ID: {}: {}", filmId, userId, result);
+
         return result;
     }
 
     @Override
-    public boolean addLike(Long filmId, Long userId) {
-        String sql = "MERGE INTO likes (film_id, user_id) \n" +
-                "KEY (film_id, user_id) \n" +
-                "VALUES (?, ?)";
-        int affectedRows = jdbcTemplate.update(sql, filmId, userId);
-        if (affectedRows > 0) {
-            log.debug("Фильму с ID: {} добавлен лайк пользователем с ID: {}", filmId, userId);
-        } else {
-            log.debug("Фильму с ID: {} НЕ добавлен лайк пользователем с ID: {}", filmId, userId);
+    @Transactional
+    public LikeResult deleteLike(Long filmId, Long userId) {
+        LikeResult result = likeBuffer != null
+                ? likeBuffer.deleteLike(filmId, userId, this::findLikeState)
+                : removeLike(filmId, userId);
+        if (result == LikeResult.APPLIED && likeBuffer == null) {
+            TransactionHooks.afterCommit(() -> likePersisted(filmId, userId, false));
         }
+        log.debug("Удаление лайка фильму с ID: {} пользователем с ID: {}: {}", filmId, userId, result);
 
-        return affectedRows > 0;
+        return result;
     }
 
     @Override
-    public boolean deleteLike(Long filmId, Long userId) {
+    public void addPersistedLikeListener(PersistedLikeListener listener) {
+        likeListeners.add(listener);
+    }
+
+    private void likePersisted(long filmId, long userId, boolean liked) {
+        if (liked) {
+            likeMatrix.like(userId, filmId);
+        } else {
+            likeMatrix.unlike(userId, filmId);
+        }
+        likeListeners.forEach(listener -> listener.persisted(filmId, userId, liked));
+    }
+
+    @Override
+    public List<Long> findRecommendedFilmIds(Long userId, int neighbors, int limit, int maxCandidates) {
+        return likeMatrix.recommend(userId, neighbors, limit, maxCandidates, ForkJoinPool.commonPool());
+    }
+
+    private LikeResult insertLike(Long filmId, Long userId) {
+        // Проверки ссылок и дубликата входят в сам INSERT, поэтому обычные отказы не порождают ошибок БД
+        String sql = """
+                INSERT INTO likes (film_id, user_id)
+                SELECT ?, ?
+                WHERE EXISTS (SELECT 1 FROM films WHERE film_id = ?)
+                  AND EXISTS (SELECT 1 FROM users WHERE user_id = ?)
+                  AND NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)
+                """;
+        int affectedRows;
+        try {
+            affectedRows = jdbcTemplate.update(sql, filmId, userId, filmId, userId, filmId, userId);
+        } catch (DuplicateKeyException e) {
+            // Параллельный запрос успел вставить ту же пару; после ошибки транзакция в PostgreSQL уже прервана,
+            // поэтому больше запросов в ней не выполняем
+            return LikeResult.ALREADY_LIKED;
+        }
+        if (affectedRows > 0) {
+            updateLikeCount(filmId, 1);
+            return LikeResult.APPLIED;
+        }
+        LikeResult missingReference = findLikeState(filmId, userId).missingReference();
+        return missingReference != null ? missingReference : LikeResult.ALREADY_LIKED;
+    }
+
+    private LikeResult removeLike(Long filmId, Long userId) {
         String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
         int affectedRows = jdbcTemplate.update(sql, filmId, userId);
         if (affectedRows > 0) {
-            log.debug("Фильму с ID: {} удалён лайк пользователем с ID: {}", filmId, userId);
+            updateLikeCount(filmId, -1);
+            return LikeResult.APPLIED;
+        }
+        LikeResult missingReference = findLikeState(filmId, userId).missingReference();
+        return missingReference != null ? missingReference : LikeResult.NOT_LIKED;
+    }
+
+    @Override
+    public int reconcileLikeCounts() {
+        String sql = """
+                UPDATE films f
+                SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)
+                WHERE like_count <> (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)
+                """;
+        int repairedRows = jdbcTemplate.update(sql);
+        if (repairedRows > 0) {
+            log.warn("Счётчики лайков пересчитаны для {} фильмов", repairedRows);
         } else {
-            log.debug("Фильму с ID: {} НЕ удалён лайк пользователем с ID: {}", filmId, userId);
+            log.debug("Счётчики лайков согласованы с таблицей likes");
         }
 
-        return affectedRows > 0;
+        return repairedRows;
+    }
+
+    private void updateLikeCount(Long filmId, int delta) {
+        jdbcTemplate.update("UPDATE films SET like_count = like_count + ? WHERE film_id = ?", delta, filmId);
     }
 }
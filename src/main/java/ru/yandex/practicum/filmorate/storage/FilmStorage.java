@@ -2,22 +2,40 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.LikeResult;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
 
     Film addFilm(Film film);
 
+    List<Film> addFilms(List<Film> films);
+
     Film updateFilm(Film film);
 
-    List<Film> findAllFilms();
+    List<Film> findFilmsPage(long afterFilmId, int limit);
+
+    boolean existsById(Long filmId);
 
     Optional<Film> findFilmById(Long filmId);
 
-    List<Long> findTopPopularFilmIds(int count);
+    void streamFilmsWithGenres(int fetchSize, Consumer<Film> consumer);
+
+    Optional<Film> findFilmWithGenresById(Long filmId);
+
+    List<Film> findFilmsByIds(Collection<Long> filmIds);
+
+    List<Long> findTopPopularFilmIds(int count, Integer genreId, Integer year, Integer mpaId);
+
+    List<Long> findRecommendedFilmIds(Long userId, int neighbors, int limit, int maxCandidates);
+
+    Map<Long, Integer> findLikeCounts();
 
     void updateFilmGenres(Long filmId, Set<Integer> genreIds);
 
@@ -27,7 +45,11 @@ public interface FilmStorage {
 
     boolean isFilmLikedByUser(Long filmId, Long userId);
 
-    boolean addLike(Long filmId, Long userId);
+    LikeResult addLike(Long filmId, Long userId);
+
+    LikeResult deleteLike(Long filmId, Long userId);
+
+    void addPersistedLikeListener(PersistedLikeListener listener);
 
-    boolean deleteLike(Long filmId, Long userId);
+    int reconcileLikeCounts();
 }
@@ -1,14 +1,15 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
-import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.FriendSuggestionResult;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 @Slf4j
 @Repository
@@ -16,13 +17,23 @@ import java.util.List;
 public class FriendShipDbStorage implements FriendShipStorage {
 
     private final JdbcTemplate jdbcTemplate;
-    private final NamedParameterJdbcTemplate namedJdbcTemplate;
-    private final RowMapper<User> userMapper;
+    private final FriendshipGraph graph = new FriendshipGraph();
+    private final FriendSuggester suggester = new FriendSuggester(graph, ForkJoinPool.commonPool());
+
+    @PostConstruct
+    public void loadGraph() {
+        graph.rebuild(sink -> jdbcTemplate.query("SELECT user_id, friend_id FROM friendships",
+                rs -> {
+                    sink.accept(rs.getLong("user_id"), rs.getLong("friend_id"));
+                }));
+        log.info("Загружен граф дружбы: {} связей", graph.edgeCount());
+    }
 
     @Override
     public void addFriend(Long userId, Long friendId) {
         String sql = "INSERT INTO friendships (user_id, friend_id) VALUES (?, ?)";
         jdbcTemplate.update(sql, userId, friendId);
+        TransactionHooks.afterCommit(() -> graph.add(userId, friendId));
         log.debug("Добавлена дружба: {} -> {}", userId, friendId);
     }
 
@@ -30,38 +41,38 @@ public class FriendShipDbStorage implements FriendShipStorage {
     public void deleteFriend(Long userId, Long friendId) {
         String sql = "DELETE FROM friendships WHERE user_id = ? AND friend_id = ?";
         jdbcTemplate.update(sql, userId, friendId);
+        TransactionHooks.afterCommit(() -> graph.remove(userId, friendId));
         log.debug("Удалена дружба: {} -> {}", userId, friendId);
     }
 
     @Override
     public boolean friendshipExists(Long userId, Long friendId) {
-        String sql = "SELECT EXISTS(SELECT 1 FROM friendships WHERE user_id = ? AND friend_id = ?)";
-        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, userId, friendId));
+        return graph.contains(userId, friendId);
     }
 
     @Override
-    public List<User> getFriends(Long userId) {
-        String sql = """
-                SELECT u.* FROM users u
-                JOIN friendships f ON u.user_id = f.friend_id
-                WHERE f.user_id = ?
-                """;
-        log.debug("Получение друзей пользователя ID: {}", userId);
-        List<User> friends = jdbcTemplate.query(sql, userMapper, userId);
-        log.debug("Получены друзья пользователя: {}", friends);
-        return friends;
+    public List<Long> getFriendIds(Long userId) {
+        List<Long> friendIds = toList(graph.friendsOf(userId));
+        log.debug("Получены ID друзей пользователя {}: {}", userId, friendIds.size());
+        return friendIds;
     }
 
     @Override
-    public List<User> getCommonFriends(Long userId, Long otherUserId) {
-        String sql = """
-        SELECT u.* FROM users u
-        JOIN friendships f1 ON u.user_id = f1.friend_id AND f1.user_id = ?
-        JOIN friendships f2 ON u.user_id = f2.friend_id AND f2.user_id = ?
-        """;
-        log.debug("Запрос общих друзей для пользователей {} и {}", userId, otherUserId);
-        List<User> friends = jdbcTemplate.query(sql, userMapper, userId, otherUserId);
-        log.debug("Результат поиска общих друзей: найдено {} пользователей", friends.size());
-        return friends;
+    public List<Long> getCommonFriendIds(Long userId, Long otherUserId) {
+        List<Long> friendIds = toList(graph.commonFriends(userId, otherUserId));
+        log.debug("Результат поиска общих друзей {} и {}: найдено {} пользователей", userId, otherUserId, friendIds.size());
+        return friendIds;
+    }
+
+    @Override
+    public FriendSuggestionResult findFriendSuggestions(Long userId, int limit, long deadlineNanos) {
+        FriendSuggestionResult result = suggester.suggest(userId, limit, deadlineNanos);
+        log.debug("Рекомендации друзей для пользователя {}: {} кандидатов, усечено: {}",
+                userId, result.getSuggestions().size(), result.isTruncated());
+        return result;
+    }
+
+    private static List<Long> toList(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
     }
 }
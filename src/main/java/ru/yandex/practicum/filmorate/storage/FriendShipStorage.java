@@ -1,6 +1,6 @@
 package ru.yandex.practicum.filmorate.storage;
 
-import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.FriendSuggestionResult;
 
 import java.util.List;
 
@@ -12,7 +12,9 @@ public interface FriendShipStorage {
 
     boolean friendshipExists(Long userId, Long friendId);
 
-    List<User> getFriends(Long userId);
+    List<Long> getFriendIds(Long userId);
 
-    List<User> getCommonFriends(Long userId, Long otherUserId);
+    List<Long> getCommonFriendIds(Long userId, Long otherUserId);
+
+    FriendSuggestionResult findFriendSuggestions(Long userId, int limit, long deadlineNanos);
 }
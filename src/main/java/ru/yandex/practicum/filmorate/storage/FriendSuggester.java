@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.FriendSuggestionResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+final class FriendSuggester {
+
+    static final int PARALLEL_THRESHOLD = 1024;
+    private static final int CHUNK_SIZE = 256;
+    private static final int DEADLINE_CHECK_MASK = 0x0FFF;
+
+    private final FriendshipGraph graph;
+    private final ForkJoinPool pool;
+
+    FriendSuggester(FriendshipGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    FriendSuggestionResult suggest(long userId, int limit, long deadlineNanos) {
+        long[] friends = graph.friendsOf(userId);
+        AtomicBoolean truncated = new AtomicBoolean();
+        CountTask task = new CountTask(userId, friends, 0, friends.length, deadlineNanos, truncated);
+        LongIntCounter counter = friends.length >= PARALLEL_THRESHOLD ? pool.invoke(task) : task.compute();
+
+        TopScores top = new TopScores(limit);
+        counter.forEach((candidateId, mutualFriends) -> {
+            if (Arrays.binarySearch(friends, candidateId) < 0) {
+                top.offer(candidateId, mutualFriends);
+            }
+        });
+        List<FriendSuggestion> suggestions = new ArrayList<>(top.size());
+        top.forEachSorted((candidateId, mutualFriends) -> suggestions.add(FriendSuggestion.builder()
+                .userId(candidateId)
+                .mutualFriends(mutualFriends)
+                .build()));
+        return FriendSuggestionResult.builder()
+                .suggestions(suggestions)
+                .truncated(truncated.get())
+                .build();
+    }
+
+    private final class CountTask extends RecursiveTask<LongIntCounter> {
+
+        private final long userId;
+        private final long[] friends;
+        private final int from;
+        private final int to;
+        private final long deadlineNanos;
+        private final AtomicBoolean truncated;
+
+        CountTask(long userId, long[] friends, int from, int to, long deadlineNanos, AtomicBoolean truncated) {
+            this.userId = userId;
+            this.friends = friends;
+            this.from = from;
+            this.to = to;
+            this.deadlineNanos = deadlineNanos;
+            this.truncated = truncated;
+        }
+
+        @Override
+        protected LongIntCounter compute() {
+            if (to - from > CHUNK_SIZE && friends.length >= PARALLEL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                CountTask left = new CountTask(userId, friends, from, middle, deadlineNanos, truncated);
+                CountTask right = new CountTask(userId, friends, middle, to, deadlineNanos, truncated);
+                left.fork();
+                LongIntCounter rightCounter = right.compute();
+                return LongIntCounter.merge(left.join(), rightCounter);
+            }
+            LongIntCounter counter = new LongIntCounter();
+            for (int i = from; i < to; i++) {
+                if (isPastDeadline()) {
+                    return counter;
+                }
+                long[] friendsOfFriend = graph.friendsOf(friends[i]);
+                for (int j = 0; j < friendsOfFriend.length; j++) {
+                    if ((j & DEADLINE_CHECK_MASK) == DEADLINE_CHECK_MASK && isPastDeadline()) {
+                        return counter;
+                    }
+                    if (friendsOfFriend[j] != userId) {
+                        counter.increment(friendsOfFriend[j]);
+                    }
+                }
+            }
+            return counter;
+        }
+
+        private boolean isPastDeadline() {
+            if (truncated.get() || System.nanoTime() - deadlineNanos > 0) {
+                truncated.set(true);
+                return true;
+            }
+            return false;
+        }
+    }
+}
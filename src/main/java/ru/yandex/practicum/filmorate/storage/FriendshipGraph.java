@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+final class FriendshipGraph {
+
+    private static final long[] EMPTY = new long[0];
+
+    // Массивы друзей неизменяемы: каждое изменение публикует новую отсортированную копию
+    private volatile Map<Long, long[]> adjacency = new ConcurrentHashMap<>();
+
+    long[] friendsOf(long userId) {
+        return adjacency.getOrDefault(userId, EMPTY);
+    }
+
+    boolean contains(long userId, long friendId) {
+        return Arrays.binarySearch(friendsOf(userId), friendId) >= 0;
+    }
+
+    boolean add(long userId, long friendId) {
+        boolean[] added = new boolean[1];
+        adjacency.compute(userId, (id, friends) -> {
+            long[] current = friends != null ? friends : EMPTY;
+            int position = Arrays.binarySearch(current, friendId);
+            if (position >= 0) {
+                return current;
+            }
+            int insertAt = -position - 1;
+            long[] updated = new long[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, insertAt);
+            updated[insertAt] = friendId;
+            System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+            added[0] = true;
+            return updated;
+        });
+        return added[0];
+    }
+
+    boolean remove(long userId, long friendId) {
+        boolean[] removed = new boolean[1];
+        adjacency.computeIfPresent(userId, (id, current) -> {
+            int position = Arrays.binarySearch(current, friendId);
+            if (position < 0) {
+                return current;
+            }
+            removed[0] = true;
+            if (current.length == 1) {
+                return null;
+            }
+            long[] updated = new long[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, position);
+            System.arraycopy(current, position + 1, updated, position, current.length - position - 1);
+            return updated;
+        });
+        return removed[0];
+    }
+
+    long[] commonFriends(long userId, long otherUserId) {
+        long[] first = friendsOf(userId);
+        long[] second = friendsOf(otherUserId);
+        long[] result = new long[Math.min(first.length, second.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    int edgeCount() {
+        int count = 0;
+        for (long[] friends : adjacency.values()) {
+            count += friends.length;
+        }
+        return count;
+    }
+
+    void rebuild(Consumer<EdgeSink> loader) {
+        Map<Long, GrowableLongs> edges = new HashMap<>();
+        loader.accept((userId, friendId) -> edges.computeIfAbsent(userId, id -> new GrowableLongs()).add(friendId));
+        Map<Long, long[]> loaded = new ConcurrentHashMap<>(edges.size() * 2);
+        edges.forEach((userId, friends) -> loaded.put(userId, friends.toSortedArray()));
+        adjacency = loaded;
+    }
+
+    @FunctionalInterface
+    interface EdgeSink {
+        void accept(long userId, long friendId);
+    }
+
+    private static final class GrowableLongs {
+
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -5,7 +5,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Genre;
 
@@ -17,6 +19,7 @@ import java.util.*;
 public class GenreDbStorage implements GenreStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
     private final RowMapper<Genre> genreMapper;
 
     @Override
@@ -61,7 +64,28 @@ public class GenreDbStorage implements GenreStorage {
         JOIN genres g ON fg.genre_id = g.genre_id
         ORDER BY fg.film_id, g.genre_id
         """;
-        return jdbcTemplate.query(sql, rs -> {
+        return jdbcTemplate.query(sql, filmGenresExtractor());
+    }
+
+    @Override
+    public Map<Long, List<Genre>> getFilmGenres(Collection<Long> filmIds) {
+        String sql = """
+        SELECT fg.film_id, g.genre_id, g.name
+        FROM film_genre fg
+        JOIN genres g ON fg.genre_id = g.genre_id
+        WHERE fg.film_id IN (:filmIds)
+        ORDER BY fg.film_id, g.genre_id
+        """;
+        Map<Long, List<Genre>> result = new HashMap<>();
+        for (List<Long> chunk : QueryChunks.partition(filmIds)) {
+            result.putAll(namedJdbcTemplate.query(sql, Map.of("filmIds", chunk), filmGenresExtractor()));
+        }
+        log.debug("Получены жанры для {} из {} фильмов", result.size(), filmIds.size());
+        return result;
+    }
+
+    private ResultSetExtractor<Map<Long, List<Genre>>> filmGenresExtractor() {
+        return rs -> {
             Map<Long, List<Genre>> result = new HashMap<>();
             while (rs.next()) {
                 Long filmId = rs.getLong("film_id");
@@ -69,6 +93,6 @@ public class GenreDbStorage implements GenreStorage {
                 result.computeIfAbsent(filmId, k -> new ArrayList<>()).add(genre);
             }
             return result;
-        });
+        };
     }
 }
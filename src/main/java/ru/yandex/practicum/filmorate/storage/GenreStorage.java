@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -13,4 +14,6 @@ public interface GenreStorage {
     Optional<Genre> findGenreById(int id);
 
     Map<Long, List<Genre>> getFilmGenres();
+
+    Map<Long, List<Genre>> getFilmGenres(Collection<Long> filmIds);
 }
@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+final class IdExistenceIndex {
+
+    private static final int INITIAL_WORDS = 64;
+    private static final long MAX_INDEXED_ID = (long) Integer.MAX_VALUE;
+
+    // Установка битов берёт read-lock, расширение и пересборка массива — write-lock
+    private final ReadWriteLock resizeLock = new ReentrantReadWriteLock();
+    private volatile AtomicLongArray words = new AtomicLongArray(INITIAL_WORDS);
+
+    boolean contains(long id) {
+        if (id < 0 || id > MAX_INDEXED_ID) {
+            return false;
+        }
+        AtomicLongArray current = words;
+        int wordIndex = (int) (id >>> 6);
+        return wordIndex < current.length() && (current.get(wordIndex) & (1L << id)) != 0;
+    }
+
+    void add(long id) {
+        if (id < 0 || id > MAX_INDEXED_ID) {
+            return;
+        }
+        int wordIndex = (int) (id >>> 6);
+        // Длину проверяем под тем же замком, что и запись: между ними rebuild мог заменить массив
+        while (true) {
+            resizeLock.readLock().lock();
+            try {
+                AtomicLongArray current = words;
+                if (wordIndex < current.length()) {
+                    current.accumulateAndGet(wordIndex, 1L << id, (word, mask) -> word | mask);
+                    return;
+                }
+            } finally {
+                resizeLock.readLock().unlock();
+            }
+            grow(wordIndex + 1);
+        }
+    }
+
+    void addAfterCommit(long id) {
+        TransactionHooks.afterCommit(() -> add(id));
+    }
+
+    void rebuild(Consumer<LongConsumer> loader) {
+        resizeLock.writeLock().lock();
+        try {
+            words = new AtomicLongArray(INITIAL_WORDS);
+            loader.accept(this::addUnderWriteLock);
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    private void addUnderWriteLock(long id) {
+        if (id < 0 || id > MAX_INDEXED_ID) {
+            return;
+        }
+        int wordIndex = (int) (id >>> 6);
+        if (wordIndex >= words.length()) {
+            words = copyOf(words, wordIndex + 1);
+        }
+        words.set(wordIndex, words.get(wordIndex) | (1L << id));
+    }
+
+    private void grow(int minWords) {
+        resizeLock.writeLock().lock();
+        try {
+            if (minWords > words.length()) {
+                words = copyOf(words, minWords);
+            }
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    private static AtomicLongArray copyOf(AtomicLongArray source, int minWords) {
+        int length = (int) Math.min(Math.max((long) source.length() * 2, minWords), Integer.MAX_VALUE);
+        AtomicLongArray target = new AtomicLongArray(length);
+        for (int i = 0; i < source.length(); i++) {
+            target.set(i, source.get(i));
+        }
+        return target;
+    }
+}
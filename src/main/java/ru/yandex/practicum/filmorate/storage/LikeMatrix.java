@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+final class LikeMatrix {
+
+    static final int PARALLEL_THRESHOLD = 4096;
+    private static final int CHUNK_SIZE = 2048;
+
+    // Битмапы неизменяемы после публикации: изменение кладёт в карту новую копию
+    private volatile Map<Integer, RoaringBitmap> filmsByUser = new ConcurrentHashMap<>();
+    private volatile Map<Integer, RoaringBitmap> usersByFilm = new ConcurrentHashMap<>();
+
+    boolean like(long userId, long filmId) {
+        if (!isIndexable(userId) || !isIndexable(filmId)) {
+            return false;
+        }
+        boolean changed = update(filmsByUser, (int) userId, (int) filmId, true);
+        if (changed) {
+            update(usersByFilm, (int) filmId, (int) userId, true);
+        }
+        return changed;
+    }
+
+    boolean unlike(long userId, long filmId) {
+        if (!isIndexable(userId) || !isIndexable(filmId)) {
+            return false;
+        }
+        boolean changed = update(filmsByUser, (int) userId, (int) filmId, false);
+        if (changed) {
+            update(usersByFilm, (int) filmId, (int) userId, false);
+        }
+        return changed;
+    }
+
+    long likeCount() {
+        long count = 0;
+        for (RoaringBitmap films : filmsByUser.values()) {
+            count += films.getLongCardinality();
+        }
+        return count;
+    }
+
+    List<Long> recommend(long userId, int neighbors, int limit, int maxCandidates, ForkJoinPool pool) {
+        RoaringBitmap liked = isIndexable(userId) ? filmsByUser.get((int) userId) : null;
+        if (liked == null || liked.isEmpty() || neighbors <= 0 || limit <= 0) {
+            return List.of();
+        }
+        int[] candidates = collectCandidates(liked, (int) userId, maxCandidates);
+        NeighborTask task = new NeighborTask(liked, candidates, 0, candidates.length, neighbors);
+        TopScores nearest = candidates.length >= PARALLEL_THRESHOLD ? pool.invoke(task) : task.compute();
+
+        LongIntCounter filmScores = new LongIntCounter();
+        nearest.forEachSorted((neighborId, overlap) -> {
+            RoaringBitmap neighborFilms = filmsByUser.get((int) neighborId);
+            if (neighborFilms != null) {
+                RoaringBitmap.andNot(neighborFilms, liked).forEach((int filmId) -> filmScores.add(filmId, overlap));
+            }
+        });
+        TopScores topFilms = new TopScores(limit);
+        filmScores.forEach(topFilms::offer);
+        List<Long> filmIds = new ArrayList<>(topFilms.size());
+        topFilms.forEachSorted((filmId, score) -> filmIds.add(filmId));
+        return filmIds;
+    }
+
+    void rebuild(Consumer<LikeSink> loader) {
+        Map<Integer, RoaringBitmap> films = new HashMap<>();
+        Map<Integer, RoaringBitmap> users = new HashMap<>();
+        loader.accept((userId, filmId) -> {
+            if (isIndexable(userId) && isIndexable(filmId)) {
+                films.computeIfAbsent((int) userId, id -> new RoaringBitmap()).add((int) filmId);
+                users.computeIfAbsent((int) filmId, id -> new RoaringBitmap()).add((int) userId);
+            }
+        });
+        films.values().forEach(RoaringBitmap::runOptimize);
+        users.values().forEach(RoaringBitmap::runOptimize);
+        filmsByUser = new ConcurrentHashMap<>(films);
+        usersByFilm = new ConcurrentHashMap<>(users);
+    }
+
+    // Соседей ищем сначала среди редких фильмов пользователя: они информативнее и ограничивают перебор
+    private int[] collectCandidates(RoaringBitmap liked, int userId, int maxCandidates) {
+        RoaringBitmap[] audiences = Arrays.stream(liked.toArray())
+                .mapToObj(usersByFilm::get)
+                .filter(audience -> audience != null && !audience.isEmpty())
+                .sorted(Comparator.comparingLong(RoaringBitmap::getLongCardinality))
+                .toArray(RoaringBitmap[]::new);
+        RoaringBitmap candidates = new RoaringBitmap();
+        for (RoaringBitmap audience : audiences) {
+            if (candidates.getCardinality() > maxCandidates) {
+                break;
+            }
+            candidates.or(audience);
+        }
+        candidates.remove(userId);
+        return candidates.getCardinality() > maxCandidates
+                ? candidates.limit(maxCandidates).toArray()
+                : candidates.toArray();
+    }
+
+    private static boolean update(Map<Integer, RoaringBitmap> index, int key, int value, boolean add) {
+        boolean[] changed = new boolean[1];
+        index.compute(key, (id, current) -> {
+            boolean present = current != null && current.contains(value);
+            if (present == add) {
+                return current;
+            }
+            changed[0] = true;
+            RoaringBitmap copy = current != null ? current.clone() : new RoaringBitmap();
+            if (add) {
+                copy.add(value);
+            } else {
+                copy.remove(value);
+            }
+            return copy.isEmpty() ? null : copy;
+        });
+        return changed[0];
+    }
+
+    private static boolean isIndexable(long id) {
+        return id > 0 && id <= Integer.MAX_VALUE;
+    }
+
+    @FunctionalInterface
+    interface LikeSink {
+        void accept(long userId, long filmId);
+    }
+
+    private final class NeighborTask extends RecursiveTask<TopScores> {
+
+        private final RoaringBitmap liked;
+        private final int[] candidates;
+        private final int from;
+        private final int to;
+        private final int neighbors;
+
+        NeighborTask(RoaringBitmap liked, int[] candidates, int from, int to, int neighbors) {
+            this.liked = liked;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.neighbors = neighbors;
+        }
+
+        @Override
+        protected TopScores compute() {
+            if (to - from > CHUNK_SIZE && candidates.length >= PARALLEL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                NeighborTask left = new NeighborTask(liked, candidates, from, middle, neighbors);
+                NeighborTask right = new NeighborTask(liked, candidates, middle, to, neighbors);
+                left.fork();
+                TopScores rightTop = right.compute();
+                return left.join().merge(rightTop);
+            }
+            TopScores top = new TopScores(neighbors);
+            for (int i = from; i < to; i++) {
+                RoaringBitmap candidateFilms = filmsByUser.get(candidates[i]);
+                if (candidateFilms != null) {
+                    top.offer(candidates[i], RoaringBitmap.andCardinality(liked, candidateFilms));
+                }
+            }
+            return top;
+        }
+    }
+}
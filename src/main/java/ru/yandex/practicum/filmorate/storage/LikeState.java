@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.LikeResult;
+
+record LikeState(boolean filmExists, boolean userExists, boolean liked) {
+
+    LikeResult missingReference() {
+        if (!filmExists) {
+            return LikeResult.FILM_NOT_FOUND;
+        }
+        if (!userExists) {
+            return LikeResult.USER_NOT_FOUND;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,264 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.likes.write-behind.enabled", havingValue = "true")
+public class LikeWriteBehindBuffer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPending;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    // Мутации берут read-lock, смена буфера перед сбросом — write-lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // Не synchronized: сброс ходит в БД, а монитор на время ожидания удерживал бы поток-носитель виртуального потока
+    private final Lock flushLock = new ReentrantLock();
+    private volatile Map<LikeKey, PendingLike> pending = new ConcurrentHashMap<>();
+    private volatile Map<LikeKey, PendingLike> flushing = Map.of();
+    private volatile PersistedLikeListener persistedListener = (filmId, userId, liked) -> {
+    };
+
+    public LikeWriteBehindBuffer(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${filmorate.likes.write-behind.max-pending:500}") int maxPending,
+            @Value("${filmorate.likes.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Сброс не зависит от транзакции запроса: ни её откат, ни ошибка пакета не должны задевать друг друга
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxPending = maxPending;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(virtualThreads
+                ? Thread.ofVirtual().name("like-write-behind").factory()
+                : Thread.ofPlatform().name("like-write-behind").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Включена отложенная запись лайков: не более {} изменений и {} мс до сброса", maxPending, flushIntervalMs);
+    }
+
+    public LikeResult addLike(long filmId, long userId, BiFunction<Long, Long, LikeState> stateLookup) {
+        return mutate(new LikeKey(filmId, userId), true, stateLookup);
+    }
+
+    public LikeResult deleteLike(long filmId, long userId, BiFunction<Long, Long, LikeState> stateLookup) {
+        return mutate(new LikeKey(filmId, userId), false, stateLookup);
+    }
+
+    public boolean isLiked(long filmId, long userId, BiFunction<Long, Long, LikeState> stateLookup) {
+        swapLock.readLock().lock();
+        try {
+            return effectiveState(new LikeKey(filmId, userId), stateLookup).liked();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // Слушатель получает только изменения, которые сброс действительно записал в БД
+    public void onPersisted(PersistedLikeListener listener) {
+        this.persistedListener = listener;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            Map<LikeKey, PendingLike> batch;
+            swapLock.writeLock().lock();
+            try {
+                batch = pending;
+                if (batch.isEmpty()) {
+                    return;
+                }
+                flushing = batch;
+                pending = new ConcurrentHashMap<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            try {
+                List<LikeKey> written = transactionTemplate.execute(status -> write(batch));
+                written.forEach(key -> notifyPersisted(key, batch.get(key)));
+                log.debug("Сброшено отложенных изменений лайков: {}", batch.size());
+            } catch (DataAccessException e) {
+                log.error("Не удалось сбросить пакет из {} изменений лайков, повтор по одному", batch.size(), e);
+                batch.forEach(this::writeSingle);
+            } finally {
+                flushing = Map.of();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        scheduler.shutdown();
+        flush();
+        log.info("Буфер отложенной записи лайков сброшен при остановке");
+    }
+
+    private LikeResult mutate(LikeKey key, boolean liked, BiFunction<Long, Long, LikeState> stateLookup) {
+        boolean changed;
+        swapLock.readLock().lock();
+        try {
+            LikeState state = effectiveState(key, stateLookup);
+            LikeResult missingReference = state.missingReference();
+            if (missingReference != null) {
+                return missingReference;
+            }
+            boolean base = state.liked();
+            boolean[] previous = new boolean[1];
+            pending.compute(key, (k, current) -> {
+                boolean persisted = current != null ? current.persisted() : base;
+                previous[0] = current != null ? current.liked() : base;
+                // Пара добавление/удаление схлопывается: запись, совпадающая с состоянием в БД, не нужна
+                return liked == persisted ? null : new PendingLike(persisted, liked);
+            });
+            changed = previous[0] != liked;
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        // Сброс по размеру уходит в фоновый поток: в потоке запроса он попал бы в его транзакцию
+        if (pending.size() >= maxPending && !scheduler.isShutdown() && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+        if (changed) {
+            return LikeResult.APPLIED;
+        }
+        return liked ? LikeResult.ALREADY_LIKED : LikeResult.NOT_LIKED;
+    }
+
+    private LikeState effectiveState(LikeKey key, BiFunction<Long, Long, LikeState> stateLookup) {
+        PendingLike like = pending.get(key);
+        if (like == null) {
+            like = flushing.get(key);
+        }
+        // Наличие отложенной записи означает, что фильм и пользователь уже были проверены
+        return like != null
+                ? new LikeState(true, true, like.liked())
+                : stateLookup.apply(key.filmId(), key.userId());
+    }
+
+    // Возвращает изменения, которые действительно затронули строки likes
+    private List<LikeKey> write(Map<LikeKey, PendingLike> batch) {
+        List<LikeKey> added = new ArrayList<>();
+        List<LikeKey> deleted = new ArrayList<>();
+        batch.forEach((key, like) -> (like.liked() ? added : deleted).add(key));
+
+        Map<Long, Integer> likeCountDeltas = new HashMap<>();
+        List<LikeKey> written = new ArrayList<>(batch.size());
+        applyDeltas(likeCountDeltas, written, added, 1, jdbcTemplate.batchUpdate("""
+                INSERT INTO likes (film_id, user_id)
+                SELECT ?, ?
+                WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)
+                """, toArgs(added, true)));
+        applyDeltas(likeCountDeltas, written, deleted, -1, jdbcTemplate.batchUpdate(
+                "DELETE FROM likes WHERE film_id = ? AND user_id = ?", toArgs(deleted, false)));
+
+        List<Object[]> counterArgs = new ArrayList<>();
+        likeCountDeltas.forEach((filmId, delta) -> {
+            if (delta != 0) {
+                counterArgs.add(new Object[]{delta, filmId});
+            }
+        });
+        jdbcTemplate.batchUpdate("UPDATE films SET like_count = like_count + ? WHERE film_id = ?", counterArgs);
+        return written;
+    }
+
+    private void writeSingle(LikeKey key, PendingLike like) {
+        try {
+            List<LikeKey> written = transactionTemplate.execute(status -> write(Map.of(key, like)));
+            written.forEach(writtenKey -> notifyPersisted(writtenKey, like));
+        } catch (DataIntegrityViolationException e) {
+            log.error("Изменение лайка фильма {} пользователем {} отброшено", key.filmId(), key.userId(), e);
+        } catch (DataAccessException e) {
+            log.warn("Изменение лайка фильма {} пользователем {} возвращено в буфер", key.filmId(), key.userId(), e);
+            requeue(key, like);
+        }
+    }
+
+    // Изменение, сделанное во время сброса, опиралось на несохранённое значение: исходным остаётся состояние в БД
+    private void requeue(LikeKey key, PendingLike failed) {
+        swapLock.readLock().lock();
+        try {
+            pending.compute(key, (k, current) -> {
+                boolean liked = current != null ? current.liked() : failed.liked();
+                return liked == failed.persisted() ? null : new PendingLike(failed.persisted(), liked);
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void notifyPersisted(LikeKey key, PendingLike like) {
+        persistedListener.persisted(key.filmId(), key.userId(), like.liked());
+    }
+
+    private static List<Object[]> toArgs(List<LikeKey> keys, boolean repeatKey) {
+        List<Object[]> args = new ArrayList<>(keys.size());
+        for (LikeKey key : keys) {
+            args.add(repeatKey
+                    ? new Object[]{key.filmId(), key.userId(), key.filmId(), key.userId()}
+                    : new Object[]{key.filmId(), key.userId()});
+        }
+        return args;
+    }
+
+    private static void applyDeltas(Map<Long, Integer> deltas, List<LikeKey> written, List<LikeKey> keys, int sign,
+                                    int[] affectedRows) {
+        for (int i = 0; i < keys.size(); i++) {
+            if (affectedRows[i] > 0) {
+                deltas.merge(keys.get(i).filmId(), sign * affectedRows[i], Integer::sum);
+                written.add(keys.get(i));
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка фонового сброса буфера лайков", e);
+        }
+    }
+
+    private record LikeKey(long filmId, long userId) {
+    }
+
+    private record PendingLike(boolean persisted, boolean liked) {
+    }
+}
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.storage;
+
+final class LongIntCounter {
+
+    // Идентификаторы начинаются с 1, поэтому 0 обозначает свободную ячейку
+    private long[] keys = new long[64];
+    private int[] counts = new int[64];
+    private int size;
+
+    void increment(long key) {
+        add(key, 1);
+    }
+
+    void add(long key, int delta) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot] += delta;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                visitor.visit(keys[i], counts[i]);
+            }
+        }
+    }
+
+    static LongIntCounter merge(LongIntCounter first, LongIntCounter second) {
+        LongIntCounter larger = first.size >= second.size ? first : second;
+        LongIntCounter smaller = larger == first ? second : first;
+        smaller.forEach(larger::add);
+        return larger;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                add(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(long key, int count);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.storage;
+
+// Получает только изменения лайков, уже зафиксированные в БД
+@FunctionalInterface
+public interface PersistedLikeListener {
+    void persisted(long filmId, long userId, boolean liked);
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class QueryChunks {
+
+    static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+    static <T> List<List<T>> partition(Collection<T> values) {
+        List<T> distinctValues = values.stream().distinct().toList();
+        List<List<T>> chunks = new ArrayList<>((distinctValues.size() + IN_CLAUSE_CHUNK_SIZE - 1) / IN_CLAUSE_CHUNK_SIZE);
+        for (int from = 0; from < distinctValues.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            int to = Math.min(from + IN_CLAUSE_CHUNK_SIZE, distinctValues.size());
+            chunks.add(distinctValues.subList(from, to));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+
+final class TopScores {
+
+    private final long[] ids;
+    private final int[] scores;
+    private int size;
+
+    TopScores(int limit) {
+        this.ids = new long[limit];
+        this.scores = new int[limit];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Минимальная куча: в корне худший из отобранных элементов
+    void offer(long id, int score) {
+        if (ids.length == 0) {
+            return;
+        }
+        if (size < ids.length) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (isWorse(ids[0], scores[0], id, score)) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    TopScores merge(TopScores other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.ids[i], other.scores[i]);
+        }
+        return this;
+    }
+
+    void forEachSorted(LongIntCounter.Visitor visitor) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (first, second) -> isWorse(ids[first], scores[first], ids[second], scores[second])
+                ? 1
+                : isWorse(ids[second], scores[second], ids[first], scores[first]) ? -1 : 0);
+        for (int index : order) {
+            visitor.visit(ids[index], scores[index]);
+        }
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isWorse(ids[index], scores[index], ids[parent], scores[parent])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = index * 2 + 1;
+            int right = left + 1;
+            int worst = index;
+            if (left < size && isWorse(ids[left], scores[left], ids[worst], scores[worst])) {
+                worst = left;
+            }
+            if (right < size && isWorse(ids[right], scores[right], ids[worst], scores[worst])) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    // При равном счёте выше стоит меньший идентификатор
+    private static boolean isWorse(long id, int score, long otherId, int otherScore) {
+        return score != otherScore ? score < otherScore : id > otherId;
+    }
+
+    private void swap(int first, int second) {
+        long id = ids[first];
+        ids[first] = ids[second];
+        ids[second] = id;
+        int score = scores[first];
+        scores[first] = scores[second];
+        scores[second] = score;
+    }
+}
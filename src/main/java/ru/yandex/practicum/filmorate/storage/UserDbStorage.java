@@ -1,8 +1,8 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -19,8 +19,10 @@ import java.util.*;
 public class UserDbStorage implements UserStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
     private final SimpleJdbcInsert simpleJdbcInsert;
     private final RowMapper<User> userMapper;
+    private final IdExistenceIndex userIds = new IdExistenceIndex();
 
     @Autowired
     public UserDbStorage(
@@ -29,12 +31,23 @@ public class UserDbStorage implements UserStorage {
             RowMapper<User> userMapper
     ) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
         this.simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
                 .withTableName("users")
                 .usingGeneratedKeyColumns("user_id");
         this.userMapper = userMapper;
     }
 
+    @PostConstruct
+    public void loadUserIds() {
+        int[] count = new int[1];
+        userIds.rebuild(consumer -> jdbcTemplate.query("SELECT user_id FROM users", rs -> {
+            consumer.accept(rs.getLong(1));
+            count[0]++;
+        }));
+        log.info("Загружен индекс идентификаторов пользователей: {} записей", count[0]);
+    }
+
     @Override
     public User addUser(User user) {
         Map<String, Object> parameters = new HashMap<>();
@@ -45,6 +58,7 @@ public class UserDbStorage implements UserStorage {
 
         long id = simpleJdbcInsert.executeAndReturnKey(parameters).longValue();
         user.setUserId(id);
+        userIds.addAfterCommit(id);
         log.info("Создан новый пользователь с ID: {}", user);
 
         return user;
@@ -65,14 +79,26 @@ public class UserDbStorage implements UserStorage {
     }
 
     @Override
-    public List<User> findAllUsers() {
-        String sqlQuery = "SELECT * FROM users";
-        try {
-            return jdbcTemplate.query(sqlQuery, userMapper);
-        } catch (DataAccessException e) {
-            log.error("Ошибка при получении списка пользователей", e);
-            return Collections.emptyList();
+    public List<User> findUsersPage(long afterUserId, int limit) {
+        String sqlQuery = "SELECT user_id, email, login, name, birthday FROM users " +
+                "WHERE user_id > ? ORDER BY user_id LIMIT ?";
+        return jdbcTemplate.query(sqlQuery, userMapper, afterUserId, limit);
+    }
+
+    @Override
+    public boolean existsById(Long userId) {
+        if (userId == null) {
+            return false;
         }
+        if (userIds.contains(userId)) {
+            return true;
+        }
+        String sqlQuery = "SELECT EXISTS(SELECT 1 FROM users WHERE user_id = ?)";
+        boolean exists = Boolean.TRUE.equals(jdbcTemplate.queryForObject(sqlQuery, Boolean.class, userId));
+        if (exists) {
+            userIds.addAfterCommit(userId);
+        }
+        return exists;
     }
 
     @Override
@@ -86,4 +112,20 @@ public class UserDbStorage implements UserStorage {
             return Optional.empty();
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<User> findUsersByIds(Collection<Long> userIds) {
+        String sqlQuery = "SELECT user_id, email, login, name, birthday FROM users WHERE user_id IN (:userIds)";
+        Map<Long, User> usersById = new HashMap<>();
+        for (List<Long> chunk : QueryChunks.partition(userIds)) {
+            namedJdbcTemplate.query(sqlQuery, Map.of("userIds", chunk), userMapper)
+                    .forEach(user -> usersById.put(user.getUserId(), user));
+        }
+        List<User> users = userIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        log.debug("Найдено {} пользователей из {} запрошенных", users.size(), userIds.size());
+        return users;
+    }
+}
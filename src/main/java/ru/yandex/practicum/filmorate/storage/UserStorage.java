@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,7 +12,11 @@ public interface UserStorage {
 
     User updateUser(User user);
 
-    List<User> findAllUsers();
+    List<User> findUsersPage(long afterUserId, int limit);
+
+    boolean existsById(Long userId);
 
     Optional<User> findUserById(Long userId);
+
+    List<User> findUsersByIds(Collection<Long> userIds);
 }
@@ -66,6 +66,9 @@ FROM (VALUES
 JOIN films f ON f.name = data.film_name
 JOIN users u ON u.email = data.user_email;
 
+UPDATE films f
+SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id);
+
 MERGE INTO friendships (user_id, friend_id) KEY(user_id, friend_id)
 SELECT u1.user_id, u2.user_id
 FROM (VALUES
@@ -30,9 +30,15 @@ CREATE TABLE IF NOT EXISTS films (
     release_date DATE,
     duration INTEGER,
     rating_id INTEGER,
-    FOREIGN KEY (rating_id) REFERENCES ratings(rating_id)
+    like_count INTEGER NOT NULL DEFAULT 0
 );
 
+CREATE INDEX IF NOT EXISTS idx_films_like_count ON films (like_count DESC, film_id DESC);
+CREATE INDEX IF NOT EXISTS idx_films_rating_like_count ON films (rating_id, like_count DESC, film_id DESC);
+CREATE INDEX IF NOT EXISTS idx_films_release_date ON films (release_date);
+-- Внешний ключ объявлен после индекса, чтобы H2 использовал его вместо отдельного индекса по rating_id
+ALTER TABLE films ADD CONSTRAINT fk_films_rating FOREIGN KEY (rating_id) REFERENCES ratings(rating_id);
+
 CREATE TABLE IF NOT EXISTS genres (
     genre_id SERIAL PRIMARY KEY,
     name VARCHAR(50) NOT NULL,
@@ -47,12 +53,14 @@ CREATE TABLE IF NOT EXISTS film_genre (
     FOREIGN KEY (genre_id) REFERENCES genres(genre_id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS idx_film_genre_genre_id ON film_genre (genre_id, film_id);
+
 CREATE TABLE IF NOT EXISTS likes (
     film_id BIGINT,
     user_id BIGINT,
     PRIMARY KEY (film_id, user_id),
-    FOREIGN KEY (film_id) REFERENCES films(film_id) ON DELETE CASCADE,
-    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+    CONSTRAINT fk_likes_film FOREIGN KEY (film_id) REFERENCES films(film_id) ON DELETE CASCADE,
+    CONSTRAINT fk_likes_user FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
 );
 
 CREATE TABLE IF NOT EXISTS friendships (
@@ -62,4 +70,6 @@ CREATE TABLE IF NOT EXISTS friendships (
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
     FOREIGN KEY (friend_id) REFERENCES users(user_id) ON DELETE CASCADE,
     CHECK (user_id <> friend_id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_friendships_friend_id ON friendships (friend_id, user_id);
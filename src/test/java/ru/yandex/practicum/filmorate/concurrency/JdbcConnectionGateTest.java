@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcConnectionGateTest {
+
+    private static final long TIMEOUT_MS = 50;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final DataSource dataSource = JdbcConnectionGate.wrap(
+            new SimpleDriverDataSource(new org.h2.Driver(), "jdbc:h2:mem:gate;DB_CLOSE_DELAY=-1", "sa", ""),
+            1, TIMEOUT_MS,
+            new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class));
+
+    @Test
+    void testConnectionShouldWaitForPermitUntilTimeout() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+        assertThat(registry.get(JdbcConnectionGate.WAIT_METER).timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testRepeatedCloseShouldReleasePermitOnce() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        try (Connection first = dataSource.getConnection()) {
+            assertThat(first.isClosed()).isFalse();
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PinnedThreadMonitorTest {
+
+    private static final Duration EVENT_WAIT = Duration.ofSeconds(10);
+
+    private final Object lock = new Object();
+
+    @Test
+    void testSleepInsideSynchronizedShouldBeReportedAsPinning() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PinnedThreadMonitor monitor = new PinnedThreadMonitor(registry, 10);
+        monitor.start();
+        try {
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    sleepQuietly(Duration.ofMillis(100));
+                }
+            }).join();
+
+            // JFR отдаёт события в поток пачками примерно раз в секунду
+            long deadline = System.nanoTime() + EVENT_WAIT.toNanos();
+            while (registry.get(PinnedThreadMonitor.PINNED_METER).timer().count() == 0
+                    && System.nanoTime() < deadline) {
+                sleepQuietly(Duration.ofMillis(100));
+            }
+            assertThat(registry.get(PinnedThreadMonitor.PINNED_METER).timer().count()).isPositive();
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    private static void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
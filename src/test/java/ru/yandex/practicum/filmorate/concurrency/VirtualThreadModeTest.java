@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.yandex.practicum.filmorate.dto.request.UserRequest;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true"
+)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class VirtualThreadModeTest {
+
+    private final TestRestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final RequestThreadRecorder requestThreadRecorder;
+
+    @Test
+    void testRequestsShouldRunOnVirtualThreads() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/films/popular?count=3", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(requestThreadRecorder.lastThread).isNotNull();
+        assertThat(requestThreadRecorder.lastThread.isVirtual()).isTrue();
+    }
+
+    @Test
+    void testConnectionsShouldPassThroughGate() {
+        // Первое соединение при запуске регистрирует таймер ожидания
+        Timer waitTimer = meterRegistry.find(JdbcConnectionGate.WAIT_METER).timer();
+        assertThat(waitTimer).isNotNull();
+        long acquiredBefore = waitTimer.count();
+
+        UserRequest request = new UserRequest();
+        request.setEmail("gate@example.com");
+        request.setLogin("gate");
+        request.setName("Gate");
+        request.setBirthday(LocalDate.of(1990, 1, 1));
+        ResponseEntity<String> response = restTemplate.postForEntity("/users", request, String.class);
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(waitTimer.count()).isGreaterThan(acquiredBefore);
+    }
+
+    @TestConfiguration
+    static class RequestThreadConfig {
+
+        @Bean
+        RequestThreadRecorder requestThreadRecorder() {
+            return new RequestThreadRecorder();
+        }
+    }
+
+    static class RequestThreadRecorder extends OncePerRequestFilter {
+
+        private volatile Thread lastThread;
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            lastThread = Thread.currentThread();
+            chain.doFilter(request, response);
+        }
+    }
+}
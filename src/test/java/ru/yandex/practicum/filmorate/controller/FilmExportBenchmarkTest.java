@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Запуск: mvn test -Dtest=FilmExportBenchmarkTest -Dfilmorate.benchmark=true [-Dfilmorate.benchmark.films=1000000]
+@Slf4j
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:file:./target/benchmark/export;DB_CLOSE_ON_EXIT=FALSE",
+                "logging.level.org.zalando.logbook=WARN"
+        }
+)
+@EnabledIfSystemProperty(named = "filmorate.benchmark", matches = "true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmExportBenchmarkTest {
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void testExportFilmsShouldKeepHeapFlat() throws Exception {
+        int filmCount = Integer.getInteger("filmorate.benchmark.films", 1_000_000);
+        generateFilms(filmCount);
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/films/export")).build();
+        HeapSampler heapSampler = new HeapSampler();
+        long exported = 0;
+        long bytes = 0;
+
+        System.gc();
+        long heapBefore = usedHeap();
+        long liveBefore = liveHeapAfterGc();
+        heapSampler.start();
+        long startedAt = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            byte[] buffer = new byte[READ_BUFFER_BYTES];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                bytes += read;
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        exported++;
+                    }
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        heapSampler.interrupt();
+        heapSampler.join();
+
+        log.info("Выгрузка {} фильмов: {} строк/с, {} МБ NDJSON, пик занятой кучи +{} МБ, пик живых данных после GC +{} МБ",
+                exported,
+                Math.round(exported / seconds),
+                bytes / (1024 * 1024),
+                (heapSampler.peakUsed - heapBefore) / (1024 * 1024),
+                Math.max(0, heapSampler.peakLiveAfterGc - liveBefore) / (1024 * 1024));
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(exported).isGreaterThanOrEqualTo(filmCount);
+    }
+
+    private void generateFilms(int filmCount) {
+        jdbcTemplate.update("DELETE FROM likes");
+        jdbcTemplate.update("DELETE FROM film_genre");
+        jdbcTemplate.update("DELETE FROM films");
+        jdbcTemplate.update("""
+                INSERT INTO films (name, description, release_date, duration, rating_id)
+                SELECT 'Film ' || X, 'Description of film ' || X, DATEADD('DAY', MOD(X, 40000), DATE '1900-01-01'),
+                       60 + MOD(X, 120), 1 + MOD(X, 5)
+                FROM SYSTEM_RANGE(1, ?)
+                """, filmCount);
+        jdbcTemplate.update("INSERT INTO film_genre (film_id, genre_id) SELECT film_id, 1 + MOD(film_id, 6) FROM films");
+        jdbcTemplate.update("""
+                INSERT INTO film_genre (film_id, genre_id)
+                SELECT film_id, 1 + MOD(film_id + 3, 6) FROM films WHERE MOD(film_id, 2) = 0
+                """);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long liveHeapAfterGc() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+                .mapToLong(pool -> pool.getCollectionUsage().getUsed())
+                .sum();
+    }
+
+    private static class HeapSampler extends Thread {
+        private volatile long peakUsed;
+        private volatile long peakLiveAfterGc;
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                peakUsed = Math.max(peakUsed, usedHeap());
+                peakLiveAfterGc = Math.max(peakLiveAfterGc, liveHeapAfterGc());
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
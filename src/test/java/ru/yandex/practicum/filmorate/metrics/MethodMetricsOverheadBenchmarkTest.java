@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Запуск: mvn test -Dtest=MethodMetricsOverheadBenchmarkTest -Dfilmorate.benchmark=true
+@Slf4j
+@EnabledIfSystemProperty(named = "filmorate.benchmark", matches = "true")
+class MethodMetricsOverheadBenchmarkTest {
+
+    private static final int ITERATIONS = 5_000_000;
+
+    @Test
+    void testInstrumentationOverheadPerCall() {
+        MeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        MethodMetricsPostProcessor postProcessor = new MethodMetricsPostProcessor(
+                new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class));
+        MpaStorage plain = new MethodMetricsPostProcessorTest.StubMpaStorage();
+        MpaStorage timed = (MpaStorage) postProcessor.postProcessAfterInitialization(
+                new MethodMetricsPostProcessorTest.StubMpaStorage(), "mpaStorage");
+
+        double plainNanos = 0;
+        double timedNanos = 0;
+        for (int round = 0; round < 3; round++) {
+            plainNanos = measure(plain);
+            timedNanos = measure(timed);
+        }
+        double overhead = timedNanos - plainNanos;
+        log.info("Вызов без метрик — {} нс, с таймером — {} нс, накладные расходы — {} нс",
+                Math.round(plainNanos), Math.round(timedNanos), Math.round(overhead));
+        assertThat(overhead).isLessThan(1_000);
+    }
+
+    private static double measure(MpaStorage storage) {
+        long sink = 0;
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += storage.findMpaRatingById(i).isPresent() ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        assertThat(sink).isZero();
+        return (double) elapsed / ITERATIONS;
+    }
+}
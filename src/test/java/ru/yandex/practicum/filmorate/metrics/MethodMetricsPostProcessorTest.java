@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MethodMetricsPostProcessorTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final MethodMetricsPostProcessor postProcessor = new MethodMetricsPostProcessor(
+            new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class));
+
+    @Test
+    void testStorageMethodsShouldBeTimedByOutcome() {
+        StubMpaStorage storage = (StubMpaStorage) postProcessor.postProcessAfterInitialization(
+                new StubMpaStorage(), "mpaStorage");
+
+        storage.findAllMpaRatings();
+        storage.findAllMpaRatings();
+        assertThatThrownBy(() -> storage.findMpaRatingById(-1)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(timer("findAllMpaRatings", "success").count()).isEqualTo(2);
+        assertThat(timer("findMpaRatingById", "error").count()).isEqualTo(1);
+        assertThat(timer("findMpaRatingById", "success").count()).isZero();
+    }
+
+    @Test
+    void testMethodsOutsideStorageInterfaceShouldNotBeTimed() {
+        StubMpaStorage storage = (StubMpaStorage) postProcessor.postProcessAfterInitialization(
+                new StubMpaStorage(), "mpaStorage");
+
+        storage.warmUp();
+
+        assertThat(registry.find(MethodMetricsPostProcessor.STORAGE_METER).tag("method", "warmUp").timer()).isNull();
+    }
+
+    @Test
+    void testUnrelatedBeansShouldNotBeProxied() {
+        Object bean = new Object();
+
+        assertThat(postProcessor.postProcessAfterInitialization(bean, "other")).isSameAs(bean);
+    }
+
+    private Timer timer(String method, String outcome) {
+        return registry.get(MethodMetricsPostProcessor.STORAGE_METER)
+                .tag("class", "StubMpaStorage")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timer();
+    }
+
+    static class StubMpaStorage implements MpaStorage {
+
+        @Override
+        public List<MpaRating> findAllMpaRatings() {
+            return List.of();
+        }
+
+        @Override
+        public Optional<MpaRating> findMpaRatingById(int id) {
+            if (id < 0) {
+                throw new IllegalArgumentException("id");
+            }
+            return Optional.empty();
+        }
+
+        public void warmUp() {
+        }
+    }
+}
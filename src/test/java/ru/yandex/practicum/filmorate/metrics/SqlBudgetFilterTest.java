@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class SqlBudgetFilterTest {
+
+    private final MockMvc mockMvc;
+
+    @Test
+    void testPopularFilmsShouldStayWithinStatementBudget() throws Exception {
+        MvcResult result = mockMvc.perform(get("/films/popular").param("count", "5"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(Integer.parseInt(result.getResponse().getHeader(SqlBudgetFilter.STATEMENTS_HEADER)))
+                .isBetween(1, 3);
+        assertThat(result.getResponse().getHeader(SqlBudgetFilter.JDBC_TIME_HEADER)).isNotNull();
+    }
+
+    @Test
+    void testControllerCallsShouldNotIssueRepeatedStatements() throws Exception {
+        SqlStatementStats stats = SqlStatementTracker.track(() -> {
+            mockMvc.perform(get("/users/1/friends")).andExpect(status().isOk());
+            mockMvc.perform(get("/films/1")).andExpect(status().isOk());
+        });
+
+        assertThat(stats.getStatementCount()).isLessThanOrEqualTo(6);
+        assertThat(stats.getRepeatedStatements()).isEmpty();
+    }
+
+    @Test
+    void testNormalizeShouldCollapseLiteralsAndParameterLists() {
+        assertThat(SqlStatementStats.normalize("SELECT *  FROM films WHERE film_id IN (?, ?, ?) AND name = 'It''s'"))
+                .isEqualTo(SqlStatementStats.normalize("SELECT * FROM films WHERE film_id IN (?, ?) AND name = 'x'"));
+        assertThat(SqlStatementStats.normalize("SELECT * FROM users WHERE user_id = 42"))
+                .isEqualTo(SqlStatementStats.normalize("SELECT * FROM users WHERE user_id = 7"));
+    }
+}
@@ -0,0 +1,281 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Воспроизводимый генератор нагрузочных данных: при одинаковом seed получаются одинаковые таблицы.
+ * Популярность фильмов распределена по Ципфу, граф дружбы строится предпочтительным присоединением.
+ *
+ * <p>Запуск: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.yandex.practicum.filmorate.perf.DatasetGenerator
+ * -Dexec.args="--url=jdbc:h2:file:./db/filmorate --users=100000 --films=20000 --likes=2000000 --seed=42"
+ * <br>После генерации приложение запускается с --spring.sql.init.mode=never, иначе schema.sql удалит данные.
+ */
+@Slf4j
+@Builder
+public class DatasetGenerator {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int RATINGS = 5;
+    private static final int GENRES = 6;
+    private static final int MAX_GENRES_PER_FILM = 3;
+    private static final int MAX_ATTEMPTS_PER_LIKE = 20;
+    private static final LocalDate FIRST_RELEASE = LocalDate.of(1950, 1, 1);
+    private static final int RELEASE_DAYS = 365 * 75;
+    private static final String[] TITLE_WORDS = {
+            "Тёмный", "Последний", "Красный", "Тихий", "Долгий", "Северный", "Потерянный", "Звёздный",
+            "Город", "Берег", "Путь", "Сон", "Ветер", "Остров", "Человек", "Рассвет",
+            "Matrix", "Night", "River", "Empire", "Shadow", "Garden", "Storm", "Signal"
+    };
+
+    @Builder.Default
+    private final int users = 10_000;
+    @Builder.Default
+    private final int films = 5_000;
+    @Builder.Default
+    private final long likes = 200_000;
+    @Builder.Default
+    private final double likeExponent = 1.0;
+    @Builder.Default
+    private final int friendsPerUser = 5;
+    @Builder.Default
+    private final double mutualFriendsShare = 0.5;
+    @Builder.Default
+    private final long seed = 42;
+
+    public static void main(String[] args) {
+        PerfArgs perfArgs = new PerfArgs(args);
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                perfArgs.getString("url", "jdbc:h2:file:./db/filmorate"),
+                perfArgs.getString("username", "sa"),
+                perfArgs.getString("password", "password"),
+                true);
+        if (perfArgs.getBoolean("init-schema", true)) {
+            initSchema(dataSource);
+        }
+        DatasetGenerator.builder()
+                .users(perfArgs.getInt("users", 10_000))
+                .films(perfArgs.getInt("films", 5_000))
+                .likes(perfArgs.getLong("likes", 200_000))
+                .likeExponent(perfArgs.getDouble("like-exponent", 1.0))
+                .friendsPerUser(perfArgs.getInt("friends-per-user", 5))
+                .mutualFriendsShare(perfArgs.getDouble("mutual-friends-share", 0.5))
+                .seed(perfArgs.getLong("seed", 42))
+                .build()
+                .generate(dataSource);
+        dataSource.destroy();
+    }
+
+    public static void initSchema(DataSource dataSource) {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data-h2.sql"))
+                .execute(dataSource);
+    }
+
+    public void generate(DataSource dataSource) {
+        if (users <= 0 || films <= 0) {
+            throw new IllegalArgumentException("Нужен хотя бы один пользователь и один фильм");
+        }
+        if (likes > (long) users * films / 2) {
+            throw new IllegalArgumentException("Лайков больше половины всех пар пользователь-фильм: " + likes);
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        // Каждой таблице свой поток случайных чисел, чтобы изменение одной не сдвигало остальные
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom userRandom = random.split();
+        SplittableRandom filmRandom = random.split();
+        SplittableRandom likeRandom = random.split();
+        SplittableRandom friendRandom = random.split();
+
+        long startedAt = System.nanoTime();
+        long[] userIds = insertUsers(jdbcTemplate, transactionTemplate, userRandom);
+        long[] filmIds = insertFilms(jdbcTemplate, transactionTemplate, filmRandom);
+        long likeCount = insertLikes(jdbcTemplate, transactionTemplate, userIds, filmIds, likeRandom);
+        long friendshipCount = insertFriendships(jdbcTemplate, transactionTemplate, userIds, friendRandom);
+        jdbcTemplate.update("UPDATE films f SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)");
+        log.info("Сгенерировано за {} мс: пользователей {} (ID {}..{}), фильмов {} (ID {}..{}), лайков {}, дружб {}",
+                (System.nanoTime() - startedAt) / 1_000_000, userIds.length, userIds[0], userIds[userIds.length - 1],
+                filmIds.length, filmIds[0], filmIds[filmIds.length - 1], likeCount, friendshipCount);
+    }
+
+    private long[] insertUsers(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              SplittableRandom random) {
+        long maxIdBefore = maxId(jdbcTemplate, "users", "user_id");
+        BatchWriter writer = new BatchWriter(jdbcTemplate, transactionTemplate,
+                "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)");
+        for (int i = 0; i < users; i++) {
+            String login = "perf_" + seed + "_" + i;
+            writer.add(login + "@example.com", login, "Пользователь " + i,
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(365 * 55))));
+        }
+        writer.flush();
+        return idsAfter(jdbcTemplate, "users", "user_id", maxIdBefore);
+    }
+
+    private long[] insertFilms(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              SplittableRandom random) {
+        long maxIdBefore = maxId(jdbcTemplate, "films", "film_id");
+        BatchWriter writer = new BatchWriter(jdbcTemplate, transactionTemplate,
+                "INSERT INTO films (name, description, release_date, duration, rating_id) VALUES (?, ?, ?, ?, ?)");
+        for (int i = 0; i < films; i++) {
+            String title = TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " "
+                    + TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " " + i;
+            writer.add(title, "Описание фильма «" + title + "»",
+                    Date.valueOf(FIRST_RELEASE.plusDays(random.nextInt(RELEASE_DAYS))),
+                    60 + random.nextInt(120), 1 + random.nextInt(RATINGS));
+        }
+        writer.flush();
+        long[] filmIds = idsAfter(jdbcTemplate, "films", "film_id", maxIdBefore);
+
+        BatchWriter genreWriter = new BatchWriter(jdbcTemplate, transactionTemplate,
+                "INSERT INTO film_genre (film_id, genre_id) VALUES (?, ?)");
+        for (long filmId : filmIds) {
+            int firstGenre = random.nextInt(GENRES);
+            int genreCount = 1 + random.nextInt(MAX_GENRES_PER_FILM);
+            for (int j = 0; j < genreCount; j++) {
+                genreWriter.add(filmId, 1 + (firstGenre + j) % GENRES);
+            }
+        }
+        genreWriter.flush();
+        return filmIds;
+    }
+
+    private long insertLikes(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             long[] userIds, long[] filmIds, SplittableRandom random) {
+        // Ранги Ципфа назначаются фильмам в случайном порядке, чтобы популярность не совпадала с порядком ID
+        int[] filmByRank = shuffledIndexes(filmIds.length, random);
+        ZipfSampler popularity = new ZipfSampler(filmIds.length, likeExponent);
+        Roaring64Bitmap liked = new Roaring64Bitmap();
+        BatchWriter writer = new BatchWriter(jdbcTemplate, transactionTemplate,
+                "INSERT INTO likes (film_id, user_id) VALUES (?, ?)");
+        long inserted = 0;
+        long maxAttempts = likes * MAX_ATTEMPTS_PER_LIKE;
+        for (long attempt = 0; inserted < likes && attempt < maxAttempts; attempt++) {
+            int film = filmByRank[popularity.next(random)];
+            int user = random.nextInt(userIds.length);
+            long pair = (long) user * filmIds.length + film;
+            if (!liked.contains(pair)) {
+                liked.addLong(pair);
+                writer.add(filmIds[film], userIds[user]);
+                inserted++;
+            }
+        }
+        writer.flush();
+        if (inserted < likes) {
+            log.warn("Удалось сгенерировать только {} из {} лайков: популярные фильмы уже лайкнуты всеми", inserted, likes);
+        }
+        return inserted;
+    }
+
+    // Модель Барабаши — Альберт: новый пользователь дружит с уже популярными, степени распределены по степенному закону
+    private long insertFriendships(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   long[] userIds, SplittableRandom random) {
+        int[] endpoints = new int[Math.max(2, 2 * userIds.length * friendsPerUser)];
+        int endpointCount = 0;
+        Roaring64Bitmap edges = new Roaring64Bitmap();
+        BatchWriter writer = new BatchWriter(jdbcTemplate, transactionTemplate,
+                "INSERT INTO friendships (user_id, friend_id) VALUES (?, ?)");
+        long inserted = 0;
+        List<Integer> targets = new ArrayList<>(friendsPerUser);
+        for (int user = 1; user < userIds.length; user++) {
+            int wanted = Math.min(friendsPerUser, user);
+            targets.clear();
+            while (targets.size() < wanted) {
+                int target = endpointCount == 0 ? random.nextInt(user) : endpoints[random.nextInt(endpointCount)];
+                if (!targets.contains(target)) {
+                    targets.add(target);
+                }
+            }
+            for (int target : targets) {
+                inserted += addFriendship(writer, edges, userIds, user, target);
+                if (random.nextDouble() < mutualFriendsShare) {
+                    inserted += addFriendship(writer, edges, userIds, target, user);
+                }
+                endpoints[endpointCount++] = user;
+                endpoints[endpointCount++] = target;
+            }
+        }
+        writer.flush();
+        return inserted;
+    }
+
+    private static int addFriendship(BatchWriter writer, Roaring64Bitmap edges, long[] userIds, int user, int friend) {
+        long edge = (long) user * userIds.length + friend;
+        if (edges.contains(edge)) {
+            return 0;
+        }
+        edges.addLong(edge);
+        writer.add(userIds[user], userIds[friend]);
+        return 1;
+    }
+
+    private static int[] shuffledIndexes(int size, SplittableRandom random) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = swap;
+        }
+        return indexes;
+    }
+
+    private static long maxId(JdbcTemplate jdbcTemplate, String table, String idColumn) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + idColumn + "), 0) FROM " + table, Long.class);
+    }
+
+    private static long[] idsAfter(JdbcTemplate jdbcTemplate, String table, String idColumn, long afterId) {
+        return jdbcTemplate.queryForList("SELECT " + idColumn + " FROM " + table + " WHERE " + idColumn + " > ? "
+                        + "ORDER BY " + idColumn, Long.class, afterId)
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    private static final class BatchWriter {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transactionTemplate;
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        BatchWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, String sql) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.transactionTemplate = transactionTemplate;
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            // Пакет в одной транзакции: в файловой H2 фиксация каждой строки отдельно заметно дороже
+            if (!rows.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+                rows.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatasetGeneratorTest {
+
+    private static final int USERS = 2_000;
+    private static final int FILMS = 500;
+    private static final int LIKES = 20_000;
+
+    @Test
+    void testSameSeedShouldProduceSameDataset() {
+        JdbcTemplate first = generate("generator-first", 7);
+        JdbcTemplate second = generate("generator-second", 7);
+
+        assertThat(first.queryForList("SELECT film_id, user_id FROM likes ORDER BY film_id, user_id"))
+                .isEqualTo(second.queryForList("SELECT film_id, user_id FROM likes ORDER BY film_id, user_id"));
+        assertThat(first.queryForList("SELECT user_id, friend_id FROM friendships ORDER BY user_id, friend_id"))
+                .isEqualTo(second.queryForList("SELECT user_id, friend_id FROM friendships ORDER BY user_id, friend_id"));
+        assertThat(first.queryForList("SELECT name FROM films ORDER BY film_id"))
+                .isEqualTo(second.queryForList("SELECT name FROM films ORDER BY film_id"));
+    }
+
+    @Test
+    void testLikesAndFriendshipsShouldBeSkewed() {
+        JdbcTemplate jdbcTemplate = generate("generator-skew", 42);
+
+        // Пользователи из data-h2.sql имеют ID до 5, сгенерированные лайки ставят только новые пользователи
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes WHERE user_id > 5", Integer.class))
+                .isEqualTo(LIKES);
+        List<Integer> likeCounts = jdbcTemplate.queryForList(
+                "SELECT like_count FROM films ORDER BY like_count DESC", Integer.class);
+        assertThat(likeCounts.getFirst()).isGreaterThan(10 * likeCounts.get(likeCounts.size() / 2));
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(like_count) FROM films", Integer.class))
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes", Integer.class));
+
+        Map<String, Object> degrees = jdbcTemplate.queryForMap("""
+                SELECT MAX(c) AS max_degree, AVG(c) AS avg_degree
+                FROM (SELECT friend_id, COUNT(*) AS c FROM friendships GROUP BY friend_id)
+                """);
+        assertThat(((Number) degrees.get("MAX_DEGREE")).doubleValue())
+                .isGreaterThan(10 * ((Number) degrees.get("AVG_DEGREE")).doubleValue());
+    }
+
+    private static JdbcTemplate generate(String database, long seed) {
+        DataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", "sa", "password");
+        DatasetGenerator.initSchema(dataSource);
+        DatasetGenerator.builder()
+                .users(USERS)
+                .films(FILMS)
+                .likes(LIKES)
+                .seed(seed)
+                .build()
+                .generate(dataSource);
+        return new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,290 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+
+/**
+ * Нагрузочный драйвер: воспроизводит смесь запросов к запущенному приложению и печатает
+ * пропускную способность и перцентили задержки по таймерам Micrometer, распределения по корзинам пишет в .csv.
+ *
+ * <p>Смесь задаётся как «МЕТОД путь=вес» через запятую; {film}, {user} и {other} подставляются случайно,
+ * фильмы выбираются по Ципфу. При заданном --rate задержка считается от запланированного момента отправки,
+ * чтобы не терять очередь при замедлении сервера.
+ *
+ * <p>Запуск: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.yandex.practicum.filmorate.perf.LoadDriver
+ * -Dexec.args="--base-url=http://localhost:8080 --max-user-id=100005 --max-film-id=20005 --concurrency=32 --duration=60"
+ */
+public class LoadDriver {
+
+    static final String DEFAULT_MIX = String.join(",",
+            "GET /films/popular?count=10=25",
+            "GET /films/{film}=25",
+            "GET /films/search?q=город=10",
+            "GET /films/autocomplete?prefix=те=10",
+            "GET /users/{user}/friends=10",
+            "GET /users/{user}/friends/common/{other}=5",
+            "GET /users/{user}/recommendations=5",
+            "PUT /films/{film}/like/{user}=5",
+            "DELETE /films/{film}/like/{user}=5");
+
+    private static final Duration MAX_EXPECTED_LATENCY = Duration.ofMinutes(1);
+    private static final int PERCENTILE_PRECISION = 3;
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+    private static final Duration[] BUCKETS = LongStream.of(1, 2, 5, 10, 20, 50, 100, 200, 500,
+                    1_000, 2_000, 5_000, 10_000, 30_000, 60_000)
+            .mapToObj(Duration::ofMillis)
+            .toArray(Duration[]::new);
+    private static final int CONNECTION_FAILED = -1;
+    private static final String TOTAL = "ALL";
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final int users;
+    private final int films;
+    private final ZipfSampler filmPopularity;
+
+    LoadDriver(String baseUrl, String mix, int users, int films, double filmExponent) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl;
+        this.operations = parseMix(mix);
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        this.users = users;
+        this.films = films;
+        this.filmPopularity = new ZipfSampler(films, filmExponent);
+    }
+
+    public static void main(String[] args) throws Exception {
+        PerfArgs perfArgs = new PerfArgs(args);
+        LoadDriver driver = new LoadDriver(
+                perfArgs.getString("base-url", "http://localhost:8080"),
+                perfArgs.getString("mix", DEFAULT_MIX),
+                perfArgs.getInt("max-user-id", 5),
+                perfArgs.getInt("max-film-id", 5),
+                perfArgs.getDouble("film-exponent", 1.0));
+        LoadResult result = driver.run(
+                perfArgs.getInt("concurrency", 16),
+                Duration.ofSeconds(perfArgs.getLong("warmup", 10)),
+                Duration.ofSeconds(perfArgs.getLong("duration", 30)),
+                perfArgs.getDouble("rate", 0),
+                perfArgs.getLong("seed", 42));
+        result.report(System.out);
+        result.writeDistributions(Path.of(perfArgs.getString("output", "target/load")));
+    }
+
+    LoadResult run(int concurrency, Duration warmup, Duration duration, double rate, long seed)
+            throws Exception {
+        // При заданной частоте каждый поток отправляет запросы через равные интервалы
+        long intervalNanos = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * concurrency / rate) : 0;
+        long startedAt = System.nanoTime();
+        long measureFrom = startedAt + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+        SplittableRandom random = new SplittableRandom(seed);
+        // Общие на всех клиентов: гистограмма на каждого из тысяч клиентов не помещается в кучу
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Окно статистики длиннее прогона, иначе перцентили и максимум обнулятся при его повороте
+        Duration window = warmup.plus(duration).plus(MAX_EXPECTED_LATENCY);
+        Timer total = newTimer(registry, TOTAL, window);
+        Map<String, Timer> timers = new LinkedHashMap<>();
+        operations.forEach(operation -> timers.put(operation.name(), newTimer(registry, operation.name(), window)));
+        LongAdder clientErrors = new LongAdder();
+        LongAdder serverErrors = new LongAdder();
+        List<Future<?>> futures = new ArrayList<>();
+        // Клиенты на виртуальных потоках: тысячи одновременных соединений не требуют тысяч потоков ОС
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                Worker worker = new Worker(random.split(), measureFrom, stopAt, intervalNanos,
+                        timers, total, clientErrors, serverErrors);
+                futures.add(executor.submit(() -> {
+                    worker.run();
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        Map<String, HistogramSnapshot> snapshots = new LinkedHashMap<>();
+        snapshots.put(TOTAL, total.takeSnapshot());
+        timers.forEach((name, timer) -> snapshots.put(name, timer.takeSnapshot()));
+        return new LoadResult(snapshots, duration, clientErrors.sum(), serverErrors.sum());
+    }
+
+    static List<Operation> parseMix(String mix) {
+        List<Operation> operations = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            int weightSeparator = part.lastIndexOf('=');
+            int methodSeparator = part.indexOf(' ');
+            if (weightSeparator < 0 || methodSeparator < 0) {
+                throw new IllegalArgumentException("Ожидалось «МЕТОД путь=вес»: " + part);
+            }
+            String method = part.substring(0, methodSeparator).trim();
+            String path = part.substring(methodSeparator + 1, weightSeparator).trim();
+            int weight = Integer.parseInt(part.substring(weightSeparator + 1).trim());
+            operations.add(new Operation(method + " " + path, method, path, weight));
+        }
+        return operations;
+    }
+
+    private Operation pickOperation(SplittableRandom random) {
+        int point = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            point -= operation.weight();
+            if (point < 0) {
+                return operation;
+            }
+        }
+        return operations.getLast();
+    }
+
+    private HttpRequest buildRequest(Operation operation, SplittableRandom random) {
+        String path = operation.path()
+                .replace("{film}", String.valueOf(1 + filmPopularity.next(random)))
+                .replace("{user}", String.valueOf(1 + random.nextInt(users)))
+                .replace("{other}", String.valueOf(1 + random.nextInt(users)));
+        // toASCIIString кодирует кириллицу в запросах поиска
+        return HttpRequest.newBuilder(URI.create(URI.create(baseUrl + path).toASCIIString()))
+                .timeout(Duration.ofSeconds(30))
+                .method(operation.method(), HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private static Timer newTimer(SimpleMeterRegistry registry, String operation, Duration window) {
+        return Timer.builder("load.request")
+                .tag("operation", operation)
+                .publishPercentiles(PERCENTILES)
+                .percentilePrecision(PERCENTILE_PRECISION)
+                .serviceLevelObjectives(BUCKETS)
+                .maximumExpectedValue(MAX_EXPECTED_LATENCY)
+                .distributionStatisticExpiry(window)
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+    }
+
+    private static double percentileMillis(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    record Operation(String name, String method, String path, int weight) {
+    }
+
+    record LoadResult(Map<String, HistogramSnapshot> snapshots, Duration duration, long clientErrors, long serverErrors) {
+
+        void report(PrintStream out) {
+            out.printf("%-45s %10s %10s %10s %10s %10s %10s%n",
+                    "операция", "запросов", "запр/с", "p50, мс", "p99, мс", "p999, мс", "max, мс");
+            snapshots.forEach((name, snapshot) -> out.printf("%-45s %10d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    name, snapshot.count(), snapshot.count() / (double) duration.toSeconds(),
+                    percentileMillis(snapshot, 0.5), percentileMillis(snapshot, 0.99),
+                    percentileMillis(snapshot, 0.999), snapshot.max(TimeUnit.MILLISECONDS)));
+            out.printf("Ответов 4xx: %d, ответов 5xx и ошибок соединения: %d%n", clientErrors, serverErrors);
+        }
+
+        // Накопительные счётчики по верхним границам корзин: «граница, мс;запросов не дольше»
+        void writeDistributions(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            for (Map.Entry<String, HistogramSnapshot> entry : snapshots.entrySet()) {
+                String fileName = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".csv";
+                try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(fileName)))) {
+                    out.println("le_ms;count");
+                    for (CountAtBucket bucket : entry.getValue().histogramCounts()) {
+                        out.printf(Locale.ROOT, "%.3f;%.0f%n", bucket.bucket(TimeUnit.MILLISECONDS), bucket.count());
+                    }
+                }
+            }
+        }
+    }
+
+    private final class Worker {
+
+        private final SplittableRandom random;
+        private final long measureFrom;
+        private final long stopAt;
+        private final long intervalNanos;
+        private final Map<String, Timer> timers;
+        private final Timer total;
+        private final LongAdder clientErrors;
+        private final LongAdder serverErrors;
+
+        Worker(SplittableRandom random, long measureFrom, long stopAt, long intervalNanos,
+               Map<String, Timer> timers, Timer total, LongAdder clientErrors, LongAdder serverErrors) {
+            this.random = random;
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+            this.intervalNanos = intervalNanos;
+            this.timers = timers;
+            this.total = total;
+            this.clientErrors = clientErrors;
+            this.serverErrors = serverErrors;
+        }
+
+        void run() throws InterruptedException {
+            long scheduledAt = System.nanoTime();
+            while (scheduledAt < stopAt) {
+                if (intervalNanos > 0) {
+                    long sleepNanos = scheduledAt - System.nanoTime();
+                    if (sleepNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                    }
+                } else {
+                    scheduledAt = System.nanoTime();
+                }
+                Operation operation = pickOperation(random);
+                int status;
+                try {
+                    status = client.send(buildRequest(operation, random), HttpResponse.BodyHandlers.discarding())
+                            .statusCode();
+                } catch (IOException e) {
+                    status = CONNECTION_FAILED;
+                }
+                long finishedAt = System.nanoTime();
+                if (scheduledAt >= measureFrom) {
+                    long latencyNanos = finishedAt - scheduledAt;
+                    timers.get(operation.name()).record(latencyNanos, TimeUnit.NANOSECONDS);
+                    total.record(latencyNanos, TimeUnit.NANOSECONDS);
+                    if (status >= 500 || status == CONNECTION_FAILED) {
+                        serverErrors.increment();
+                    } else if (status >= 400) {
+                        clientErrors.increment();
+                    }
+                }
+                scheduledAt += intervalNanos;
+            }
+        }
+    }
+}
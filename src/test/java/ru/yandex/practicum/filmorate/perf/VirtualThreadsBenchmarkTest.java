@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Запуск: mvn test -Dtest=VirtualThreadsBenchmarkTest -Dfilmorate.benchmark=true [-Dfilmorate.benchmark.clients=2000]
+@Slf4j
+@EnabledIfSystemProperty(named = "filmorate.benchmark", matches = "true")
+class VirtualThreadsBenchmarkTest {
+
+    private static final int USERS = 10_000;
+    private static final int FILMS = 2_000;
+    private static final long LIKES = 100_000;
+    private static final long SEED = 42;
+
+    @ParameterizedTest(name = "virtual threads: {0}")
+    @ValueSource(booleans = {false, true})
+    void testManyClientsShouldBeServedWithoutServerErrors(boolean virtualThreads) throws Exception {
+        int clients = Integer.getInteger("filmorate.benchmark.clients", 2_000);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("filmorate.benchmark.seconds", 20));
+        String url = "jdbc:h2:mem:vt-" + virtualThreads + ";DB_CLOSE_DELAY=-1";
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "password");
+        DatasetGenerator.initSchema(dataSource);
+        DatasetGenerator.builder()
+                .users(USERS)
+                .films(FILMS)
+                .likes(LIKES)
+                .seed(SEED)
+                .build()
+                .generate(dataSource);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.sql.init.mode=never",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--logging.level.root=WARN",
+                "--logging.level.ru.yandex.practicum.filmorate.perf=INFO",
+                "--logging.level.org.zalando.logbook=WARN",
+                "--logging.level.ru.yandex.practicum.filmorate.metrics.SqlBudgetFilter=ERROR")) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            LoadDriver driver = new LoadDriver(baseUrl, LoadDriver.DEFAULT_MIX, USERS, FILMS, 1.0);
+
+            LoadDriver.LoadResult result = driver.run(clients, Duration.ofSeconds(5), duration, 0, SEED);
+
+            ByteArrayOutputStream report = new ByteArrayOutputStream();
+            result.report(new PrintStream(report, true, StandardCharsets.UTF_8));
+            log.info("Клиентов: {}, виртуальные потоки: {}\n{}", clients, virtualThreads,
+                    report.toString(StandardCharsets.UTF_8));
+            result.writeDistributions(Path.of("target/load", "virtual-" + virtualThreads));
+            // Пул потоков Tomcat — только точка отсчёта: при нехватке потоков часть клиентов может не дождаться ответа
+            if (virtualThreads) {
+                assertThat(result.serverErrors()).isZero();
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Ранг k выпадает с вероятностью, пропорциональной 1 / k^exponent; ранг 0 — самый частый
+final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int size, double exponent) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Размер распределения должен быть положительным");
+        }
+        cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    int next(SplittableRandom random) {
+        int position = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = position >= 0 ? position : -position - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Запуск: mvn test -Dtest=FilmAutocompleteBenchmarkTest -Dfilmorate.benchmark=true [-Dfilmorate.benchmark.films=100000]
+@Slf4j
+@JdbcTest
+@AutoConfigureTestDatabase
+@EnabledIfSystemProperty(named = "filmorate.benchmark", matches = "true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmDbStorage.class, FilmRowMapper.class, FilmPopularityIndex.class, FilmAutocompleteIndex.class})
+class FilmAutocompleteBenchmarkTest {
+
+    private static final int SAMPLES = 20_000;
+    private static final String[] WORDS = {"звёздные", "войны", "star", "trek", "матрица", "ночь", "день",
+            "последний", "герой", "город", "love", "story", "dark", "knight", "красная", "планета"};
+
+    private final FilmPopularityIndex popularityIndex;
+    private final FilmAutocompleteIndex autocompleteIndex;
+
+    @Test
+    void testCompletionLatency() {
+        int filmCount = Integer.getInteger("filmorate.benchmark.films", 100_000);
+        SplittableRandom random = new SplittableRandom(42);
+        List<Film> films = new ArrayList<>(filmCount);
+        for (long filmId = 1_000_000; filmId < 1_000_000 + filmCount; filmId++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + filmId;
+            films.add(Film.builder().filmId(filmId).name(name).build());
+            popularityIndex.addFilm(filmId);
+            int likes = (int) (1_000 * Math.pow(random.nextDouble(), 4));
+            for (int i = 0; i < likes; i++) {
+                popularityIndex.incrementLikes(filmId);
+            }
+        }
+        autocompleteIndex.indexFilms(films);
+
+        for (String prefix : List.of("з", "ма", "звёздные в", "star trek 100")) {
+            assertThat(autocompleteIndex.complete(prefix, 10)).isNotEmpty();
+            long[] latencies = new long[SAMPLES];
+            for (int i = 0; i < SAMPLES; i++) {
+                long startedAt = System.nanoTime();
+                autocompleteIndex.complete(prefix, 10);
+                latencies[i] = System.nanoTime() - startedAt;
+            }
+            Arrays.sort(latencies);
+            log.info("Автодополнение «{}» по {} фильмам: p50 — {} мкс, p99 — {} мкс", prefix, filmCount,
+                    latencies[SAMPLES / 2] / 1_000.0, latencies[SAMPLES * 99 / 100] / 1_000.0);
+        }
+    }
+}
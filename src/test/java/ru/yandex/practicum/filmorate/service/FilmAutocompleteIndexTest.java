@@ -0,0 +1,160 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dto.response.FilmTitleResponse;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmDbStorage.class, FilmRowMapper.class, FilmPopularityIndex.class, FilmAutocompleteIndex.class})
+class FilmAutocompleteIndexTest {
+
+    private final FilmPopularityIndex popularityIndex;
+    private final FilmAutocompleteIndex autocompleteIndex;
+    private final JdbcTemplate jdbcTemplate;
+
+    private long nextFilmId = 1_000_000;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM films");
+        popularityIndex.rebuild();
+        autocompleteIndex.rebuild();
+    }
+
+    @Test
+    void testCompleteShouldMatchNormalizedPrefixRankedByLikes() {
+        Film starWars = addFilm("Star Wars", 5);
+        Film stardust = addFilm("Stardust", 1);
+        Film starTrek = addFilm("Star Trek", 10);
+        Film hedgehog = addFilm("Ёжик в тумане", 0);
+
+        assertThat(titles("star")).containsExactly(starTrek.getFilmId(), starWars.getFilmId(), stardust.getFilmId());
+        assertThat(titles("STAR ")).containsExactly(starTrek.getFilmId(), starWars.getFilmId());
+        assertThat(titles("star-w")).containsExactly(starWars.getFilmId());
+        assertThat(titles("ежик в т")).containsExactly(hedgehog.getFilmId());
+        assertThat(titles("matrix")).isEmpty();
+        assertThat(autocompleteIndex.complete("star", 1))
+                .extracting(FilmTitleResponse::getName)
+                .containsExactly("Star Trek");
+    }
+
+    @Test
+    void testIndexFilmShouldReplacePreviousTitle() {
+        Film film = addFilm("Old Title", 0);
+        film.setName("New Title");
+        autocompleteIndex.indexFilm(film);
+
+        assertThat(titles("old")).isEmpty();
+        assertThat(autocompleteIndex.complete("new", 10))
+                .extracting(FilmTitleResponse::getName)
+                .containsExactly("New Title");
+    }
+
+    @Test
+    void testWidePrefixShouldFollowPopularityRanking() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            films.add(film("Film " + i));
+        }
+        autocompleteIndex.indexFilms(films);
+        Film popular = films.get(777);
+        for (int i = 0; i < 3; i++) {
+            popularityIndex.incrementLikes(popular.getFilmId());
+        }
+        Film unrelated = addFilm("Other", 100);
+
+        List<Long> completions = titles("film");
+        assertThat(completions).hasSize(10).doesNotContain(unrelated.getFilmId());
+        assertThat(completions.get(0)).isEqualTo(popular.getFilmId());
+    }
+
+    @Test
+    void testIndexFilmsShouldMergeBatchIntoExistingTitles() {
+        Film alpha = addFilm("Alpha", 1);
+        Film gamma = addFilm("Gamma", 2);
+        Film beta = film("Beta");
+        Film delta = film("Delta");
+        gamma.setName("Alpine");
+        autocompleteIndex.indexFilms(List.of(delta, gamma, beta));
+        popularityIndex.incrementLikes(beta.getFilmId());
+        popularityIndex.incrementLikes(beta.getFilmId());
+        popularityIndex.incrementLikes(beta.getFilmId());
+
+        assertThat(titles("al")).containsExactly(gamma.getFilmId(), alpha.getFilmId());
+        assertThat(titles("gamma")).isEmpty();
+        assertThat(titles("b")).containsExactly(beta.getFilmId());
+        assertThat(titles("d")).containsExactly(delta.getFilmId());
+        assertThat(autocompleteIndex.complete("a", 10))
+                .extracting(FilmTitleResponse::getName)
+                .containsExactly("Alpine", "Alpha");
+    }
+
+    @Test
+    void testRankingShouldMatchFullSortOfMatches() {
+        SplittableRandom random = new SplittableRandom(7);
+        Map<Long, String> names = new HashMap<>();
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String name = "abc".charAt(random.nextInt(3)) + "" + "abc".charAt(random.nextInt(3)) + " " + i;
+            Film film = film(name);
+            films.add(film);
+            names.put(film.getFilmId(), name);
+        }
+        autocompleteIndex.indexFilms(films.subList(0, 250));
+        autocompleteIndex.indexFilms(films.subList(250, 500));
+        for (int i = 0; i < 2_000; i++) {
+            popularityIndex.incrementLikes(films.get(random.nextInt(films.size())).getFilmId());
+        }
+
+        for (String prefix : List.of("a", "ab", "c", "bb ")) {
+            List<Long> expected = names.entrySet().stream()
+                    .filter(entry -> entry.getValue().startsWith(prefix))
+                    .map(Map.Entry::getKey)
+                    .sorted(Comparator.comparingInt((Long filmId) -> popularityIndex.getLikeCount(filmId))
+                            .thenComparing(Comparator.naturalOrder())
+                            .reversed())
+                    .limit(10)
+                    .toList();
+            assertThat(titles(prefix)).as(prefix).isEqualTo(expected);
+        }
+    }
+
+    private Film addFilm(String name, int likes) {
+        Film film = film(name);
+        autocompleteIndex.indexFilm(film);
+        for (int i = 0; i < likes; i++) {
+            popularityIndex.incrementLikes(film.getFilmId());
+        }
+        return film;
+    }
+
+    private Film film(String name) {
+        Film film = Film.builder().filmId(nextFilmId++).name(name).build();
+        popularityIndex.addFilm(film.getFilmId());
+        return film;
+    }
+
+    private List<Long> titles(String prefix) {
+        return autocompleteIndex.complete(prefix, 10).stream().map(FilmTitleResponse::getId).toList();
+    }
+}
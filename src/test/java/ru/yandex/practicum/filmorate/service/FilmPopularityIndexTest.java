@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.TestTransaction;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmDbStorage.class, FilmRowMapper.class, FilmPopularityIndex.class})
+class FilmPopularityIndexTest {
+
+    private final FilmDbStorage filmStorage;
+    private final FilmPopularityIndex popularityIndex;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final List<Long> filmIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM likes");
+        jdbcTemplate.update("DELETE FROM films");
+        filmIds.clear();
+        for (int i = 0; i < 4; i++) {
+            filmIds.add(filmStorage.addFilm(createTestFilm("Film " + i)).getFilmId());
+        }
+    }
+
+    private Film createTestFilm(String name) {
+        return Film.builder()
+                .name(name)
+                .description("Description for " + name)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpaId(1)
+                .build();
+    }
+
+    @Test
+    void testRebuildShouldMatchSqlOrdering() {
+        filmStorage.addLike(filmIds.get(0), 1L);
+        filmStorage.addLike(filmIds.get(0), 2L);
+        filmStorage.addLike(filmIds.get(1), 1L);
+        filmStorage.addLike(filmIds.get(2), 1L);
+        popularityIndex.rebuild();
+
+        assertThat(popularityIndex.getTopFilmIds(10))
+                .containsExactlyElementsOf(filmStorage.findTopPopularFilmIds(10, null, null, null));
+        assertThat(popularityIndex.getTopFilmIds(10))
+                .containsExactly(filmIds.get(0), filmIds.get(2), filmIds.get(1), filmIds.get(3));
+    }
+
+    @Test
+    void testCommittedLikesShouldUpdateRankingIncrementally() {
+        popularityIndex.rebuild();
+        // Индекс получает лайки после фиксации, поэтому фильмы и лайки теста фиксируются
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            filmStorage.addLike(filmIds.get(3), 1L);
+            filmStorage.addLike(filmIds.get(1), 1L);
+            filmStorage.addLike(filmIds.get(1), 2L);
+            filmStorage.deleteLike(filmIds.get(1), 2L);
+
+            assertThat(popularityIndex.getTopFilmIds(2))
+                    .containsExactlyElementsOf(filmStorage.findTopPopularFilmIds(2, null, null, null));
+            assertThat(popularityIndex.getLikeCount(filmIds.get(1))).isEqualTo(1);
+        } finally {
+            jdbcTemplate.update("DELETE FROM likes");
+            jdbcTemplate.update("DELETE FROM films");
+            popularityIndex.rebuild();
+        }
+    }
+
+    @Test
+    void testRolledBackLikeShouldNotChangeRanking() {
+        popularityIndex.rebuild();
+        filmStorage.addLike(filmIds.get(2), 1L);
+
+        assertThat(popularityIndex.getLikeCount(filmIds.get(2))).isZero();
+    }
+
+    @Test
+    void testOutOfOrderUpdatesShouldConvergeToSqlCount() {
+        popularityIndex.rebuild();
+        popularityIndex.decrementLikes(filmIds.get(0));
+        popularityIndex.incrementLikes(filmIds.get(0));
+
+        assertThat(popularityIndex.getLikeCount(filmIds.get(0))).isZero();
+    }
+
+    @Test
+    void testConcurrentIncrementsShouldNotLoseUpdates() throws InterruptedException {
+        popularityIndex.rebuild();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            Long filmId = filmIds.get(i % filmIds.size());
+            executor.submit(() -> popularityIndex.incrementLikes(filmId));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(filmIds)
+                .allSatisfy(filmId -> assertThat(popularityIndex.getLikeCount(filmId)).isEqualTo(250));
+        assertThat(popularityIndex.getTopFilmIds(4))
+                .containsExactly(filmIds.get(3), filmIds.get(2), filmIds.get(1), filmIds.get(0));
+    }
+}
@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmDbStorage.class, FilmRowMapper.class, FilmPopularityIndex.class, FilmSearchIndex.class})
+class FilmSearchIndexTest {
+
+    private final FilmDbStorage filmStorage;
+    private final FilmPopularityIndex popularityIndex;
+    private final FilmSearchIndex searchIndex;
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM likes");
+        jdbcTemplate.update("DELETE FROM films");
+        popularityIndex.rebuild();
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void testSearchShouldMatchCyrillicAndLatinTokensCaseInsensitively() {
+        Film hedgehog = addFilm("Ёжик в тумане", "Мультфильм про ежика и лошадь");
+        Film matrix = addFilm("The Matrix", "Нео узнаёт правду о Матрице");
+
+        assertThat(searchIndex.search("ЕЖИК", 10)).containsExactly(hedgehog.getFilmId());
+        assertThat(searchIndex.search("matrix", 10)).containsExactly(matrix.getFilmId());
+        assertThat(searchIndex.search("узнает правду", 10)).containsExactly(matrix.getFilmId());
+        assertThat(searchIndex.search("нео ежик", 10)).isEmpty();
+        assertThat(searchIndex.search(" ,.!", 10)).isEmpty();
+    }
+
+    @Test
+    void testSearchShouldRankNameMatchesAndPopularFilmsHigher() {
+        Film inDescription = addFilm("Heat", "Ограбление банка в Лос-Анджелесе");
+        Film inName = addFilm("Ограбление по-итальянски", "Золото в Венеции");
+        Film popularInDescription = addFilm("Inside Man", "Ограбление банка на Манхэттене");
+        for (int i = 0; i < 50; i++) {
+            popularityIndex.incrementLikes(popularInDescription.getFilmId());
+        }
+
+        assertThat(searchIndex.search("ограбление", 10))
+                .containsExactly(inName.getFilmId(), popularInDescription.getFilmId(), inDescription.getFilmId());
+        assertThat(searchIndex.search("ограбление", 1)).containsExactly(inName.getFilmId());
+    }
+
+    @Test
+    void testIndexFilmShouldReplaceOutdatedTerms() {
+        Film film = addFilm("Старое название", "Описание");
+        film.setName("Новое название");
+        searchIndex.indexFilm(film);
+
+        assertThat(searchIndex.search("старое", 10)).isEmpty();
+        assertThat(searchIndex.search("новое название", 10)).containsExactly(film.getFilmId());
+    }
+
+    private Film addFilm(String name, String description) {
+        Film film = filmStorage.addFilm(Film.builder()
+                .name(name)
+                .description(description)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpaId(1)
+                .build());
+        searchIndex.indexFilm(film);
+        return film;
+    }
+}
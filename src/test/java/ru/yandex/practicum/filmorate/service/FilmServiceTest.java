@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.dto.request.FilmRequest;
+import ru.yandex.practicum.filmorate.dto.response.FilmBatchItemResponse;
+import ru.yandex.practicum.filmorate.dto.response.FilmBatchResponse;
+import ru.yandex.practicum.filmorate.dto.response.FilmResponse;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementStats;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementTracker;
+import ru.yandex.practicum.filmorate.metrics.SqlTrackingDataSourcePostProcessor;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+import ru.yandex.practicum.filmorate.storage.mapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.mapper.MpaRowMapper;
+import ru.yandex.practicum.filmorate.storage.mapper.UserRowMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@TestPropertySource(properties = "filmorate.pagination.max-limit=3")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({
+        FilmService.class, FilmPopularityIndex.class, FilmSearchIndex.class, FilmAutocompleteIndex.class,
+        MpaService.class, GenreService.class, ReferenceDataRegistry.class,
+        FilmDbStorage.class, UserDbStorage.class, MpaDbStorage.class, GenreDbStorage.class,
+        FilmRowMapper.class, UserRowMapper.class, MpaRowMapper.class, GenreRowMapper.class,
+        SqlTrackingDataSourcePostProcessor.class
+})
+class FilmServiceTest {
+
+    private final FilmService filmService;
+
+    @Test
+    void testGetTopPopularFilmsShouldUseConstantNumberOfStatements() throws Exception {
+        List<FilmResponse> oneFilm = new ArrayList<>();
+        List<FilmResponse> manyFilms = new ArrayList<>();
+        SqlStatementStats statementsForOneFilm = SqlStatementTracker.track(
+                () -> oneFilm.addAll(filmService.getTopPopularFilms(1)));
+        SqlStatementStats statementsForManyFilms = SqlStatementTracker.track(
+                () -> manyFilms.addAll(filmService.getTopPopularFilms(5)));
+
+        assertThat(oneFilm).hasSize(1);
+        assertThat(manyFilms).hasSize(5);
+        assertThat(statementsForOneFilm.getStatementCount()).isPositive();
+        assertThat(statementsForManyFilms.getStatementCount()).isEqualTo(statementsForOneFilm.getStatementCount());
+        assertThat(statementsForManyFilms.getRepeatedStatements()).isEmpty();
+    }
+
+    @Test
+    void testUnpagedListShouldBeCappedWithNextCursor() {
+        Page<FilmResponse> firstPage = filmService.findAllFilms();
+        Page<FilmResponse> nextPage = filmService.findFilmsPage(firstPage.getNextCursor(), null);
+
+        assertThat(firstPage.getItems()).hasSize(3);
+        assertThat(firstPage.getNextCursor()).isNotNull();
+        assertThat(nextPage.getItems().getFirst().getId()).isGreaterThan(firstPage.getItems().getLast().getId());
+    }
+
+    @Test
+    void testFilmWithNullGenreOrMpaIdShouldFailValidation() {
+        FilmRequest nullGenre = createFilmRequest("Null genre");
+        nullGenre.setGenres(Arrays.asList(null, null));
+        FilmRequest emptyMpa = createFilmRequest("Empty MPA");
+        emptyMpa.setMpa(MpaRating.builder().build());
+
+        assertThatThrownBy(() -> filmService.addFilm(nullGenre)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> filmService.addFilm(emptyMpa)).isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void testAddFilmsShouldReportErrorsPerItem() {
+        FilmRequest blankName = createFilmRequest(" ");
+        FilmRequest unknownGenre = createFilmRequest("Unknown genre");
+        unknownGenre.setGenres(List.of(new Genre(999, null)));
+
+        FilmBatchResponse response = filmService.addFilms(Arrays.asList(
+                createFilmRequest("Valid"), null, blankName, unknownGenre));
+
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getItems()).extracting(FilmBatchItemResponse::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(response.getItems().get(0).getFilm().getName()).isEqualTo("Valid");
+        assertThat(response.getItems().get(0).getError()).isNull();
+        assertThat(response.getItems().subList(1, 4)).allSatisfy(item -> {
+            assertThat(item.getFilm()).isNull();
+            assertThat(item.getError()).isNotBlank();
+        });
+        assertThat(response.getItems().get(3).getError()).contains("999");
+    }
+
+    private FilmRequest createFilmRequest(String name) {
+        FilmRequest filmRequest = new FilmRequest();
+        filmRequest.setName(name);
+        filmRequest.setDescription("Description");
+        filmRequest.setReleaseDate(LocalDate.of(2000, 1, 1));
+        filmRequest.setDuration(100);
+        filmRequest.setMpa(new MpaRating(1, null));
+        return filmRequest;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.mapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.mapper.MpaRowMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({ReferenceDataRegistry.class, GenreDbStorage.class, GenreRowMapper.class,
+        MpaDbStorage.class, MpaRowMapper.class})
+class ReferenceDataRegistryTest {
+
+    private final ReferenceDataRegistry registry;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testLookupsShouldReturnLoadedReferenceData() {
+        assertThat(registry.getAllGenres()).extracting(Genre::getId).isSorted().contains(1);
+        assertThat(registry.findGenreById(1)).map(Genre::getName).isPresent();
+        assertThat(registry.findMpaRatingById(1)).isPresent();
+    }
+
+    @Test
+    void testUnknownIdsShouldNotBeFound() {
+        assertThat(registry.findGenreById(-1)).isEmpty();
+        assertThat(registry.findGenreById(0)).isEmpty();
+        assertThat(registry.findGenreById(Integer.MAX_VALUE)).isEmpty();
+        assertThat(registry.findMpaRatingById(-1)).isEmpty();
+        assertThat(registry.findMpaRatingById(999)).isEmpty();
+    }
+
+    @Test
+    void testRefreshShouldPickUpNewGenres() {
+        jdbcTemplate.update("INSERT INTO genres (genre_id, name) VALUES (100, 'Нуар')");
+        assertThat(registry.findGenreById(100)).isEmpty();
+
+        registry.refresh();
+
+        assertThat(registry.findGenreById(100)).map(Genre::getName).contains("Нуар");
+        assertThat(registry.getAllGenres()).extracting(Genre::getId).isSorted().contains(100);
+    }
+}
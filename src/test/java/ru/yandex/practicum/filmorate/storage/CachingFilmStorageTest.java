@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+import ru.yandex.practicum.filmorate.storage.mapper.GenreRowMapper;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@TestPropertySource(properties = "filmorate.cache.films.enabled=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({CachingFilmStorage.class, FilmDbStorage.class, FilmRowMapper.class,
+        GenreDbStorage.class, GenreRowMapper.class})
+class CachingFilmStorageTest {
+
+    private final CachingFilmStorage filmStorage;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private Long filmId;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage.bindTo(registry);
+        Film film = filmStorage.addFilm(Film.builder()
+                .name("Cached")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpaId(1)
+                .build());
+        filmId = film.getFilmId();
+        filmStorage.updateFilmGenres(filmId, Set.of(1, 2));
+    }
+
+    @Test
+    void testRepeatedReadsShouldBeServedFromCache() {
+        double hitsBefore = cacheHits();
+        filmStorage.findFilmWithGenresById(filmId);
+        Film film = filmStorage.findFilmWithGenresById(filmId).orElseThrow();
+
+        assertThat(cacheHits()).isEqualTo(hitsBefore + 1);
+        assertThat(film.getGenres()).extracting(Genre::getId).containsExactly(1, 2);
+        assertThat(filmStorage.getFilmGenres(filmId)).extracting(Genre::getId).containsExactly(1, 2);
+    }
+
+    @Test
+    void testReturnedFilmShouldNotExposeCachedInstance() {
+        filmStorage.findFilmWithGenresById(filmId).orElseThrow().setName("Changed");
+
+        assertThat(filmStorage.findFilmWithGenresById(filmId).orElseThrow().getName()).isEqualTo("Cached");
+    }
+
+    @Test
+    void testUpdatesShouldInvalidateCachedFilm() {
+        filmStorage.findFilmWithGenresById(filmId);
+        Film updated = filmStorage.findFilmWithGenresById(filmId).orElseThrow();
+        updated.setName("Updated");
+        filmStorage.updateFilm(updated);
+        filmStorage.deleteAllFilmGenres(filmId);
+
+        Film film = filmStorage.findFilmWithGenresById(filmId).orElseThrow();
+        assertThat(film.getName()).isEqualTo("Updated");
+        assertThat(film.getGenres()).isEmpty();
+    }
+
+    @Test
+    void testFindFilmsByIdsShouldLoadMissesInBulkAndKeepOrder() {
+        Film other = filmStorage.addFilm(Film.builder()
+                .name("Other")
+                .description("Description")
+                .releaseDate(LocalDate.of(2001, 1, 1))
+                .duration(90)
+                .mpaId(2)
+                .build());
+        filmStorage.findFilmWithGenresById(filmId);
+
+        List<Film> films = filmStorage.findFilmsByIds(List.of(other.getFilmId(), 999_999L, filmId));
+
+        assertThat(films).extracting(Film::getFilmId).containsExactly(other.getFilmId(), filmId);
+        assertThat(films.get(0).getGenres()).isEmpty();
+        assertThat(films.get(1).getGenres()).extracting(Genre::getId).containsExactly(1, 2);
+        assertThat(filmStorage.findFilmWithGenresById(999_999L)).isEmpty();
+    }
+
+    private double cacheHits() {
+        return registry.get("cache.gets").tag("cache", "films").tag("result", "hit").functionCounter().count();
+    }
+}
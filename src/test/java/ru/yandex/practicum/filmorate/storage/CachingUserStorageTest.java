@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.mapper.UserRowMapper;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@TestPropertySource(properties = "filmorate.cache.users.enabled=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({CachingUserStorage.class, UserDbStorage.class, UserRowMapper.class})
+class CachingUserStorageTest {
+
+    private final CachingUserStorage userStorage;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userStorage.bindTo(registry);
+        user = userStorage.addUser(User.builder()
+                .email("cached@example.com")
+                .login("cached")
+                .name("Cached")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+    }
+
+    @Test
+    void testBulkLookupShouldReuseCachedUsers() {
+        userStorage.findUserById(user.getUserId());
+        double hitsBefore = cacheHits();
+        List<User> users = userStorage.findUsersByIds(List.of(user.getUserId(), 999L));
+
+        assertThat(users).extracting(User::getUserId).containsExactly(user.getUserId());
+        assertThat(cacheHits()).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void testUpdateUserShouldInvalidateCachedProfile() {
+        userStorage.findUserById(user.getUserId()).orElseThrow().setName("Local change");
+        user.setName("Updated");
+        userStorage.updateUser(user);
+
+        assertThat(userStorage.findUserById(user.getUserId()))
+                .hasValueSatisfying(found -> assertThat(found.getName()).isEqualTo("Updated"));
+    }
+
+    private double cacheHits() {
+        return registry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count();
+    }
+}
@@ -8,12 +8,17 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.TestTransaction;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.LikeResult;
 import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -65,6 +70,24 @@ class FilmDbStorageTest {
         );
     }
 
+    @Test
+    void testAddFilmsShouldInsertFilmsAndGenresInBatch() {
+        Film first = createTestFilm("Batch 1", 90, 1);
+        first.setGenres(List.of(new Genre(2, null), new Genre(1, null)));
+        Film second = createTestFilm("Batch 2", 95, 2);
+        second.setGenres(List.of());
+        List<Film> saved = filmStorage.addFilms(new ArrayList<>(List.of(first, second)));
+
+        assertThat(saved).extracting(Film::getFilmId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(filmStorage.findFilmWithGenresById(saved.get(0).getFilmId()))
+                .hasValueSatisfying(film -> {
+                    assertThat(film.getName()).isEqualTo("Batch 1");
+                    assertThat(film.getGenres()).extracting(Genre::getId).containsExactly(1, 2);
+                });
+        assertThat(filmStorage.findFilmById(saved.get(1).getFilmId()))
+                .hasValueSatisfying(film -> assertThat(film.getName()).isEqualTo("Batch 2"));
+    }
+
     @Test
     void testUpdateFilmShouldUpdateFilmInDatabase() {
         Film updatedFilm = Film.builder()
@@ -90,8 +113,8 @@ class FilmDbStorageTest {
     }
 
     @Test
-    void testFindAllFilmsShouldReturnAllFilms() {
-        List<Film> films = filmStorage.findAllFilms();
+    void testFindFilmsPageFromStartShouldReturnAllFilms() {
+        List<Film> films = filmStorage.findFilmsPage(0, 10);
 
         assertThat(films)
                 .hasSize(2)
@@ -99,23 +122,133 @@ class FilmDbStorageTest {
                 .containsExactlyInAnyOrder("Film 1", "Film 2");
     }
 
+    @Test
+    void testFindFilmsPageShouldReturnFilmsAfterCursorOrderedById() {
+        Film testFilm3 = filmStorage.addFilm(createTestFilm("Film 3", 300, 3));
+        List<Film> firstPage = filmStorage.findFilmsPage(0, 2);
+        List<Film> secondPage = filmStorage.findFilmsPage(firstPage.getLast().getFilmId(), 2);
+
+        assertThat(firstPage)
+                .extracting(Film::getFilmId)
+                .containsExactly(testFilm1.getFilmId(), testFilm2.getFilmId());
+        assertThat(secondPage)
+                .extracting(Film::getFilmId)
+                .containsExactly(testFilm3.getFilmId());
+    }
+
     @Test
     void testFindFilmByIdShouldReturnEmptyOptionalWhenNotFound() {
         Optional<Film> result = filmStorage.findFilmById(999L);
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void testFindFilmWithGenresByIdShouldFoldGenreRows() {
+        filmStorage.updateFilmGenres(testFilm1.getFilmId(), Set.of(3, 1));
+        Optional<Film> withGenres = filmStorage.findFilmWithGenresById(testFilm1.getFilmId());
+        Optional<Film> withoutGenres = filmStorage.findFilmWithGenresById(testFilm2.getFilmId());
+
+        assertThat(withGenres).hasValueSatisfying(film -> {
+            assertThat(film.getName()).isEqualTo("Film 1");
+            assertThat(film.getGenres()).extracting(Genre::getId).containsExactly(1, 3);
+        });
+        assertThat(withoutGenres).hasValueSatisfying(film -> assertThat(film.getGenres()).isEmpty());
+        assertThat(filmStorage.findFilmWithGenresById(999L)).isEmpty();
+    }
+
+    @Test
+    void testStreamFilmsWithGenresShouldMergeGenresInFilmOrder() {
+        filmStorage.updateFilmGenres(testFilm2.getFilmId(), Set.of(2, 5));
+        List<Film> streamed = new ArrayList<>();
+        filmStorage.streamFilmsWithGenres(1, streamed::add);
+
+        assertThat(streamed)
+                .extracting(Film::getFilmId)
+                .containsExactly(testFilm1.getFilmId(), testFilm2.getFilmId());
+        assertThat(streamed.get(0).getGenres()).isEmpty();
+        assertThat(streamed.get(1).getGenres())
+                .extracting(Genre::getId)
+                .containsExactly(2, 5);
+    }
+
+    @Test
+    void testFindFilmsByIdsShouldReturnFilmsInRequestedOrder() {
+        List<Film> films = filmStorage.findFilmsByIds(List.of(testFilm2.getFilmId(), 999L, testFilm1.getFilmId()));
+
+        assertThat(films)
+                .extracting(Film::getFilmId)
+                .containsExactly(testFilm2.getFilmId(), testFilm1.getFilmId());
+    }
+
     @Test
     void testFindTopPopularFilmIdsShouldReturnOrderedByLikes() {
         filmStorage.addLike(testFilm1.getFilmId(), 1L);
         filmStorage.addLike(testFilm2.getFilmId(), 1L);
         filmStorage.addLike(testFilm2.getFilmId(), 2L);
-        List<Long> popularIds = filmStorage.findTopPopularFilmIds(2);
+        List<Long> popularIds = filmStorage.findTopPopularFilmIds(2, null, null, null);
 
         assertThat(popularIds)
                 .containsExactly(testFilm2.getFilmId(), testFilm1.getFilmId());
     }
 
+    @Test
+    void testFindRecommendedFilmIdsShouldFollowCommittedLikeChanges() {
+        filmStorage.loadLikeMatrix();
+        filmStorage.addLike(testFilm1.getFilmId(), 1L);
+        filmStorage.addLike(testFilm1.getFilmId(), 2L);
+        filmStorage.addLike(testFilm2.getFilmId(), 2L);
+
+        assertThat(filmStorage.findRecommendedFilmIds(1L, 10, 10, 1000)).isEmpty();
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            assertThat(filmStorage.findRecommendedFilmIds(1L, 10, 10, 1000)).containsExactly(testFilm2.getFilmId());
+
+            filmStorage.deleteLike(testFilm2.getFilmId(), 2L);
+            assertThat(filmStorage.findRecommendedFilmIds(1L, 10, 10, 1000)).isEmpty();
+        } finally {
+            jdbcTemplate.update("DELETE FROM likes");
+            jdbcTemplate.update("DELETE FROM films");
+            filmStorage.loadLikeMatrix();
+        }
+    }
+
+    @Test
+    void testRolledBackLikesShouldNotReachLikeMatrix() {
+        filmStorage.loadLikeMatrix();
+        filmStorage.addLike(testFilm1.getFilmId(), 1L);
+        filmStorage.addLike(testFilm1.getFilmId(), 2L);
+        filmStorage.addLike(testFilm2.getFilmId(), 2L);
+
+        TestTransaction.end();
+
+        assertThat(filmStorage.findRecommendedFilmIds(1L, 10, 10, 1000)).isEmpty();
+    }
+
+    @Test
+    void testFindTopPopularFilmIdsShouldApplyFilters() {
+        Film oldFilm = createTestFilm("Old Film", 90, 1);
+        oldFilm.setReleaseDate(LocalDate.of(1999, 5, 1));
+        oldFilm = filmStorage.addFilm(oldFilm);
+        filmStorage.updateFilmGenres(testFilm1.getFilmId(), Set.of(1));
+        filmStorage.updateFilmGenres(oldFilm.getFilmId(), Set.of(1, 2));
+        filmStorage.addLike(oldFilm.getFilmId(), 1L);
+        filmStorage.addLike(oldFilm.getFilmId(), 2L);
+        filmStorage.addLike(testFilm1.getFilmId(), 1L);
+        int currentYear = LocalDate.now().getYear();
+
+        assertThat(filmStorage.findTopPopularFilmIds(10, 1, null, null))
+                .containsExactly(oldFilm.getFilmId(), testFilm1.getFilmId());
+        assertThat(filmStorage.findTopPopularFilmIds(10, 1, currentYear, null))
+                .containsExactly(testFilm1.getFilmId());
+        assertThat(filmStorage.findTopPopularFilmIds(10, null, 1999, 1))
+                .containsExactly(oldFilm.getFilmId());
+        assertThat(filmStorage.findTopPopularFilmIds(10, null, null, 2))
+                .containsExactly(testFilm2.getFilmId());
+        assertThat(filmStorage.findTopPopularFilmIds(10, 2, null, 2)).isEmpty();
+    }
+
     @Test
     void testIsFilmLikedByUserShouldReturnTrueWhenLiked() {
         filmStorage.addLike(testFilm1.getFilmId(), 1L);
@@ -125,11 +258,64 @@ class FilmDbStorageTest {
     }
 
     @Test
-    void testDeleteLikeShouldReturnTrueWhenLikeExists() {
+    void testDeleteLikeShouldReturnAppliedWhenLikeExists() {
         filmStorage.addLike(testFilm1.getFilmId(), 1L);
-        boolean result = filmStorage.deleteLike(testFilm1.getFilmId(), 1L);
+        LikeResult result = filmStorage.deleteLike(testFilm1.getFilmId(), 1L);
 
-        assertThat(result).isTrue();
+        assertThat(result).isEqualTo(LikeResult.APPLIED);
         assertThat(filmStorage.isFilmLikedByUser(testFilm1.getFilmId(), 1L)).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAddLikeShouldNotAddDuplicateLike() {
+        LikeResult first = filmStorage.addLike(testFilm1.getFilmId(), 1L);
+        LikeResult second = filmStorage.addLike(testFilm1.getFilmId(), 1L);
+
+        assertThat(first).isEqualTo(LikeResult.APPLIED);
+        assertThat(second).isEqualTo(LikeResult.ALREADY_LIKED);
+        assertThat(getLikeCount(testFilm1.getFilmId())).isEqualTo(1);
+    }
+
+    @Test
+    void testAddLikeShouldReportMissingFilmAndUser() {
+        long missingFilmId = testFilm2.getFilmId() + 1000;
+
+        assertThat(filmStorage.addLike(missingFilmId, 1L)).isEqualTo(LikeResult.FILM_NOT_FOUND);
+        assertThat(filmStorage.addLike(testFilm1.getFilmId(), 999L)).isEqualTo(LikeResult.USER_NOT_FOUND);
+        assertThat(filmStorage.addLike(missingFilmId, 999L)).isEqualTo(LikeResult.FILM_NOT_FOUND);
+        assertThat(getLikeCount(testFilm1.getFilmId())).isZero();
+    }
+
+    @Test
+    void testDeleteLikeShouldDistinguishMissingLikeFromMissingReferences() {
+        assertThat(filmStorage.deleteLike(testFilm1.getFilmId(), 1L)).isEqualTo(LikeResult.NOT_LIKED);
+        assertThat(filmStorage.deleteLike(testFilm2.getFilmId() + 1000, 1L)).isEqualTo(LikeResult.FILM_NOT_FOUND);
+        assertThat(filmStorage.deleteLike(testFilm1.getFilmId(), 999L)).isEqualTo(LikeResult.USER_NOT_FOUND);
+    }
+
+    @Test
+    void testLikeCountShouldFollowAddAndDeleteLike() {
+        filmStorage.addLike(testFilm1.getFilmId(), 1L);
+        filmStorage.addLike(testFilm1.getFilmId(), 2L);
+        filmStorage.deleteLike(testFilm1.getFilmId(), 1L);
+        filmStorage.deleteLike(testFilm1.getFilmId(), 1L);
+
+        assertThat(getLikeCount(testFilm1.getFilmId())).isEqualTo(1);
+    }
+
+    @Test
+    void testReconcileLikeCountsShouldRepairDrift() {
+        filmStorage.addLike(testFilm1.getFilmId(), 1L);
+        filmStorage.addLike(testFilm2.getFilmId(), 1L);
+        jdbcTemplate.update("UPDATE films SET like_count = 42 WHERE film_id = ?", testFilm1.getFilmId());
+        int repaired = filmStorage.reconcileLikeCounts();
+
+        assertThat(repaired).isEqualTo(1);
+        assertThat(getLikeCount(testFilm1.getFilmId())).isEqualTo(1);
+        assertThat(getLikeCount(testFilm2.getFilmId())).isEqualTo(1);
+    }
+
+    private int getLikeCount(Long filmId) {
+        return jdbcTemplate.queryForObject("SELECT like_count FROM films WHERE film_id = ?", Integer.class, filmId);
+    }
+}
@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmDbStorage.class, FilmRowMapper.class})
+class FilmLikeConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+    private static final long USER_ID = 1L;
+
+    private final FilmDbStorage filmStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Long filmId;
+
+    @BeforeEach
+    void setUp() {
+        filmId = filmStorage.addFilm(Film.builder()
+                .name("Concurrency")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpaId(1)
+                .build()).getFilmId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM films WHERE film_id = ?", filmId);
+    }
+
+    @Test
+    void testConcurrentAddLikeShouldApplyExactlyOnce() throws Exception {
+        List<LikeResult> results = hammer(attempt -> filmStorage.addLike(filmId, USER_ID));
+
+        assertThat(results).filteredOn(result -> result == LikeResult.APPLIED).hasSize(1);
+        assertThat(results).filteredOn(result -> result != LikeResult.APPLIED)
+                .containsOnly(LikeResult.ALREADY_LIKED);
+        assertThat(countLikes()).isEqualTo(1);
+        assertThat(getLikeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testConcurrentDeleteLikeShouldApplyExactlyOnce() throws Exception {
+        filmStorage.addLike(filmId, USER_ID);
+        List<LikeResult> results = hammer(attempt -> filmStorage.deleteLike(filmId, USER_ID));
+
+        assertThat(results).filteredOn(result -> result == LikeResult.APPLIED).hasSize(1);
+        assertThat(results).filteredOn(result -> result != LikeResult.APPLIED)
+                .containsOnly(LikeResult.NOT_LIKED);
+        assertThat(countLikes()).isZero();
+        assertThat(getLikeCount()).isZero();
+    }
+
+    @Test
+    void testInterleavedAddAndDeleteShouldKeepCounterConsistent() throws Exception {
+        List<LikeResult> results = hammer(attempt -> attempt % 2 == 0
+                ? filmStorage.addLike(filmId, USER_ID)
+                : filmStorage.deleteLike(filmId, USER_ID));
+
+        assertThat(results).doesNotContain(LikeResult.FILM_NOT_FOUND, LikeResult.USER_NOT_FOUND);
+        assertThat(getLikeCount()).isEqualTo(countLikes());
+    }
+
+    private List<LikeResult> hammer(IntFunction<LikeResult> action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<LikeResult>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS * ATTEMPTS_PER_THREAD; i++) {
+            int attempt = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return action.apply(attempt);
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        List<LikeResult> results = new ArrayList<>();
+        for (Future<LikeResult> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private int countLikes() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM likes WHERE film_id = ?", Integer.class, filmId);
+    }
+
+    private int getLikeCount() {
+        return jdbcTemplate.queryForObject(
+                "SELECT like_count FROM films WHERE film_id = ?", Integer.class, filmId);
+    }
+}
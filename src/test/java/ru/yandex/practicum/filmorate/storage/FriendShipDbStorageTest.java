@@ -8,6 +8,9 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.mapper.UserRowMapper;
 
@@ -18,6 +21,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
 @AutoConfigureTestDatabase
+// Граф дружбы обновляется после фиксации, поэтому каждая операция теста должна фиксироваться
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Import({FriendShipDbStorage.class, UserRowMapper.class, UserDbStorage.class})
 class FriendShipDbStorageTest {
@@ -25,11 +30,13 @@ class FriendShipDbStorageTest {
     private final FriendShipDbStorage friendShipStorage;
     private final JdbcTemplate jdbcTemplate;
     private final UserDbStorage userStorage;
+    private final TransactionTemplate transactionTemplate;
 
     @BeforeEach
     void setUp() {
         jdbcTemplate.update("DELETE FROM friendships");
         jdbcTemplate.update("DELETE FROM users");
+        friendShipStorage.loadGraph();
     }
 
     private User createTestUser(String email, String login) {
@@ -78,12 +85,10 @@ class FriendShipDbStorageTest {
         User user3 = createTestUser("user3@test.com", "login3");
         friendShipStorage.addFriend(user1.getUserId(), user2.getUserId());
         friendShipStorage.addFriend(user1.getUserId(), user3.getUserId());
-        List<User> friends = friendShipStorage.getFriends(user1.getUserId());
+        List<Long> friendIds = friendShipStorage.getFriendIds(user1.getUserId());
 
-        assertThat(friends)
-                .hasSize(2)
-                .extracting(User::getUserId)
-                .containsExactlyInAnyOrder(user2.getUserId(), user3.getUserId());
+        assertThat(friendIds)
+                .containsExactly(user2.getUserId(), user3.getUserId());
     }
 
     @Test
@@ -93,11 +98,38 @@ class FriendShipDbStorageTest {
         User commonFriend = createTestUser("common@test.com", "commonLogin");
         friendShipStorage.addFriend(user1.getUserId(), commonFriend.getUserId());
         friendShipStorage.addFriend(user2.getUserId(), commonFriend.getUserId());
-        List<User> commonFriends = friendShipStorage.getCommonFriends(user1.getUserId(), user2.getUserId());
+        List<Long> commonFriendIds = friendShipStorage.getCommonFriendIds(user1.getUserId(), user2.getUserId());
 
-        assertThat(commonFriends)
-                .hasSize(1)
-                .extracting(User::getUserId)
+        assertThat(commonFriendIds)
                 .containsExactly(commonFriend.getUserId());
     }
+
+    @Test
+    void testUncommittedFriendshipShouldNotBeVisibleInGraph() {
+        User user1 = createTestUser("user1@test.com", "login1");
+        User user2 = createTestUser("user2@test.com", "login2");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            friendShipStorage.addFriend(user1.getUserId(), user2.getUserId());
+            assertThat(friendShipStorage.friendshipExists(user1.getUserId(), user2.getUserId())).isFalse();
+        });
+
+        assertThat(friendShipStorage.friendshipExists(user1.getUserId(), user2.getUserId())).isTrue();
+    }
+
+    @Test
+    void testRolledBackChangesShouldNotTouchGraph() {
+        User user1 = createTestUser("user1@test.com", "login1");
+        User user2 = createTestUser("user2@test.com", "login2");
+        User user3 = createTestUser("user3@test.com", "login3");
+        friendShipStorage.addFriend(user1.getUserId(), user2.getUserId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            friendShipStorage.addFriend(user1.getUserId(), user3.getUserId());
+            friendShipStorage.deleteFriend(user1.getUserId(), user2.getUserId());
+            status.setRollbackOnly();
+        });
+
+        assertThat(friendShipStorage.getFriendIds(user1.getUserId())).containsExactly(user2.getUserId());
+    }
 }
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.FriendSuggestionResult;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class FriendSuggesterTest {
+
+    private final FriendshipGraph graph = new FriendshipGraph();
+    private final FriendSuggester suggester = new FriendSuggester(graph, ForkJoinPool.commonPool());
+
+    @Test
+    void testSuggestionsShouldRankNonFriendsByMutualFriends() {
+        graph.add(1, 2);
+        graph.add(1, 3);
+        graph.add(1, 4);
+        graph.add(2, 3);
+        graph.add(2, 5);
+        graph.add(3, 5);
+        graph.add(3, 6);
+        graph.add(4, 1);
+        graph.add(4, 6);
+        graph.add(4, 5);
+        graph.add(2, 7);
+
+        FriendSuggestionResult result = suggester.suggest(1, 2, deadline());
+
+        assertThat(result.isTruncated()).isFalse();
+        assertThat(result.getSuggestions())
+                .extracting(FriendSuggestion::getUserId, FriendSuggestion::getMutualFriends)
+                .containsExactly(
+                        tuple(5L, 3),
+                        tuple(6L, 2));
+    }
+
+    @Test
+    void testParallelCountingShouldMatchExpectedScores() {
+        int friends = FriendSuggester.PARALLEL_THRESHOLD * 4;
+        for (long friendId = 2; friendId < friends + 2; friendId++) {
+            graph.add(1, friendId);
+            for (long candidate = 100_000; candidate < 100_000 + friendId % 7; candidate++) {
+                graph.add(friendId, candidate);
+            }
+        }
+
+        List<FriendSuggestion> suggestions = suggester.suggest(1, 3, deadline()).getSuggestions();
+
+        assertThat(suggestions).extracting(FriendSuggestion::getUserId).containsExactly(100_000L, 100_001L, 100_002L);
+        assertThat(suggestions.get(0).getMutualFriends())
+                .isEqualTo((int) LongStream.range(2, friends + 2).filter(id -> id % 7 > 0).count());
+    }
+
+    @Test
+    void testExpiredBudgetShouldMarkResultTruncated() {
+        graph.add(1, 2);
+        graph.add(2, 3);
+
+        FriendSuggestionResult result = suggester.suggest(1, 5, System.nanoTime() - 1);
+
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(result.getSuggestions()).isEmpty();
+    }
+
+    private static long deadline() {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Запуск: mvn test -Dtest=FriendshipGraphBenchmarkTest -Dfilmorate.benchmark=true [-Dfilmorate.benchmark.friends=20000]
+@Slf4j
+@JdbcTest
+@AutoConfigureTestDatabase
+@EnabledIfSystemProperty(named = "filmorate.benchmark", matches = "true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import(FriendShipDbStorage.class)
+class FriendshipGraphBenchmarkTest {
+
+    private static final int ITERATIONS = 200;
+
+    private final FriendShipDbStorage friendShipStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testCommonFriendsFromGraphShouldMatchSql() {
+        int friends = Integer.getInteger("filmorate.benchmark.friends", 20_000);
+        long firstUserId = generateUsers(friends * 3 / 2 + 2);
+        long userId = firstUserId;
+        long otherUserId = firstUserId + 1;
+        long friendsFrom = firstUserId + 2;
+        long overlapFrom = friendsFrom + friends / 2;
+        addFriends(userId, friendsFrom, friendsFrom + friends - 1);
+        addFriends(otherUserId, overlapFrom, overlapFrom + friends - 1);
+        friendShipStorage.loadGraph();
+
+        String joinSql = """
+                SELECT u.* FROM users u
+                JOIN friendships f1 ON u.user_id = f1.friend_id AND f1.user_id = ?
+                JOIN friendships f2 ON u.user_id = f2.friend_id AND f2.user_id = ?
+                """;
+        String idSql = """
+                SELECT f1.friend_id FROM friendships f1
+                JOIN friendships f2 ON f2.friend_id = f1.friend_id AND f2.user_id = ?
+                WHERE f1.user_id = ?
+                ORDER BY f1.friend_id
+                """;
+        List<Long> expected = jdbcTemplate.queryForList(idSql, Long.class, otherUserId, userId);
+        assertThat(friendShipStorage.getCommonFriendIds(userId, otherUserId)).isEqualTo(expected);
+        assertThat(expected).hasSize(friends / 2);
+
+        double joinMicros = measure(() -> jdbcTemplate.queryForList(joinSql, userId, otherUserId));
+        double idMicros = measure(() -> jdbcTemplate.queryForList(idSql, Long.class, otherUserId, userId));
+        double graphMicros = measure(() -> friendShipStorage.getCommonFriendIds(userId, otherUserId));
+        log.info("Общие друзья при {} друзьях у каждого ({} общих): SQL c users — {} мкс, SQL по ID — {} мкс, граф — {} мкс",
+                friends, expected.size(), Math.round(joinMicros), Math.round(idMicros), Math.round(graphMicros));
+    }
+
+    private long generateUsers(int count) {
+        long before = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(user_id), 0) FROM users", Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO users (email, login, name, birthday)
+                SELECT 'bench' || X || '@example.com', 'bench' || X, 'Bench ' || X, DATE '2000-01-01'
+                FROM SYSTEM_RANGE(1, ?)
+                """, count);
+        return jdbcTemplate.queryForObject("SELECT MIN(user_id) FROM users WHERE user_id > ?", Long.class, before);
+    }
+
+    private void addFriends(long userId, long fromId, long toId) {
+        jdbcTemplate.update("""
+                INSERT INTO friendships (user_id, friend_id)
+                SELECT ?, user_id FROM users WHERE user_id BETWEEN ? AND ?
+                """, userId, fromId, toId);
+    }
+
+    private static double measure(Supplier<?> action) {
+        for (int i = 0; i < ITERATIONS / 4; i++) {
+            action.get();
+        }
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            action.get();
+        }
+        return (System.nanoTime() - startedAt) / 1_000.0 / ITERATIONS;
+    }
+}
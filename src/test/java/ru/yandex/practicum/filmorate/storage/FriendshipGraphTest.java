@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FriendshipGraphTest {
+
+    private final FriendshipGraph graph = new FriendshipGraph();
+
+    @Test
+    void testAddAndRemoveShouldKeepAdjacencySorted() {
+        graph.add(1, 30);
+        graph.add(1, 10);
+        graph.add(1, 20);
+        assertThat(graph.add(1, 10)).isFalse();
+        graph.remove(1, 20);
+
+        assertThat(graph.friendsOf(1)).containsExactly(10, 30);
+        assertThat(graph.contains(1, 30)).isTrue();
+        assertThat(graph.contains(30, 1)).isFalse();
+        assertThat(graph.remove(1, 99)).isFalse();
+    }
+
+    @Test
+    void testCommonFriendsShouldMergeSortedAdjacency() {
+        graph.rebuild(sink -> {
+            for (long friendId = 100; friendId > 0; friendId--) {
+                sink.accept(1, friendId);
+                if (friendId % 3 == 0) {
+                    sink.accept(2, friendId);
+                }
+            }
+        });
+
+        assertThat(graph.commonFriends(1, 2)).hasSize(33).startsWith(3, 6, 9).endsWith(99);
+        assertThat(graph.commonFriends(1, 42)).isEmpty();
+        assertThat(graph.edgeCount()).isEqualTo(133);
+    }
+}
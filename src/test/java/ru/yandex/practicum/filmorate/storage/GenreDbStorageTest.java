@@ -12,6 +12,7 @@ import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.mapper.GenreRowMapper;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -73,4 +74,17 @@ class GenreDbStorageTest {
 
         assertThat(genreOptional).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetFilmGenresShouldReturnGenresOnlyForRequestedFilms() {
+        List<Long> filmIds = jdbcTemplate.queryForList("SELECT film_id FROM films ORDER BY film_id LIMIT 2", Long.class);
+        jdbcTemplate.update("INSERT INTO film_genre (film_id, genre_id) VALUES (?, 2), (?, 1), (?, 3)",
+                filmIds.get(0), filmIds.get(0), filmIds.get(1));
+        Map<Long, List<Genre>> filmGenres = genreStorage.getFilmGenres(List.of(filmIds.get(0)));
+
+        assertThat(filmGenres).containsOnlyKeys(filmIds.get(0));
+        assertThat(filmGenres.get(filmIds.get(0)))
+                .extracting(Genre::getId)
+                .containsExactly(1, 2);
+    }
+}
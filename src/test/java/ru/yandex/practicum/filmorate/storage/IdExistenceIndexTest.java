@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdExistenceIndexTest {
+
+    private final IdExistenceIndex index = new IdExistenceIndex();
+
+    @Test
+    void testIndexShouldGrowBeyondInitialCapacity() {
+        index.add(3);
+        index.add(1_000_000);
+
+        assertThat(index.contains(3)).isTrue();
+        assertThat(index.contains(1_000_000)).isTrue();
+        assertThat(index.contains(4)).isFalse();
+        assertThat(index.contains(2_000_000)).isFalse();
+        assertThat(index.contains(-1)).isFalse();
+    }
+
+    @Test
+    void testRebuildShouldReplacePreviousContent() {
+        index.add(7);
+        index.rebuild(consumer -> LongStream.rangeClosed(100, 200).forEach(consumer));
+
+        assertThat(index.contains(7)).isFalse();
+        assertThat(LongStream.rangeClosed(100, 200)).allMatch(index::contains);
+    }
+
+    @Test
+    void testConcurrentAddsShouldNotLoseIds() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            long offset = thread;
+            executor.submit(() -> LongStream.range(0, 50_000).forEach(i -> index.add(i * 8 + offset)));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(LongStream.range(0, 400_000)).allMatch(index::contains);
+    }
+
+    @Test
+    void testAddsShouldSurviveConcurrentRebuilds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Future<?> rebuilds = executor.submit(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                index.rebuild(consumer -> consumer.accept(0));
+            }
+        });
+        List<Future<?>> adds = new ArrayList<>();
+        for (int thread = 0; thread < 3; thread++) {
+            adds.add(executor.submit(() -> {
+                while (!rebuilds.isDone()) {
+                    LongStream.range(0, 100).forEach(i -> index.add(i * 10_000));
+                }
+            }));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        rebuilds.get();
+        for (Future<?> add : adds) {
+            add.get();
+        }
+
+        index.add(1_000_000);
+        assertThat(index.contains(0)).isTrue();
+        assertThat(index.contains(1_000_000)).isTrue();
+    }
+}
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Запуск: mvn test -Dtest=LikeMatrixBenchmarkTest -Dfilmorate.benchmark=true [-Dfilmorate.benchmark.users=1000000] [-Dfilmorate.benchmark.max-candidates=10000]
+@Slf4j
+@EnabledIfSystemProperty(named = "filmorate.benchmark", matches = "true")
+class LikeMatrixBenchmarkTest {
+
+    private static final int SAMPLES = 1_000;
+    private static final int LIKES_PER_USER = 20;
+
+    @Test
+    void testRecommendationLatency() {
+        int users = Integer.getInteger("filmorate.benchmark.users", 1_000_000);
+        int films = Integer.getInteger("filmorate.benchmark.films", 100_000);
+        int maxCandidates = Integer.getInteger("filmorate.benchmark.max-candidates", 10_000);
+        LikeMatrix matrix = new LikeMatrix();
+        long loadStartedAt = System.nanoTime();
+        matrix.rebuild(sink -> {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int userId = 1; userId <= users; userId++) {
+                for (int i = 0; i < LIKES_PER_USER; i++) {
+                    sink.accept(userId, skewedFilmId(random, films));
+                }
+            }
+        });
+        log.info("Матрица лайков {} пользователей × {} фильмов ({} лайков) построена за {} мс",
+                users, films, matrix.likeCount(), (System.nanoTime() - loadStartedAt) / 1_000_000);
+
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < SAMPLES / 10; i++) {
+            matrix.recommend(random.nextInt(users) + 1, 50, 10, maxCandidates, ForkJoinPool.commonPool());
+        }
+        long[] latencies = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long startedAt = System.nanoTime();
+            assertThat(matrix.recommend(random.nextInt(users) + 1, 50, 10, maxCandidates, ForkJoinPool.commonPool()))
+                    .hasSizeLessThanOrEqualTo(10);
+            latencies[i] = System.nanoTime() - startedAt;
+        }
+        Arrays.sort(latencies);
+        log.info("Рекомендации: p50 — {} мкс, p99 — {} мкс, максимум — {} мкс (параллелизм пула: {})",
+                latencies[SAMPLES / 2] / 1_000, latencies[SAMPLES * 99 / 100] / 1_000,
+                latencies[SAMPLES - 1] / 1_000, ForkJoinPool.commonPool().getParallelism());
+    }
+
+    // Популярность фильмов убывает примерно степенно: небольшая голова собирает большую часть лайков
+    private static int skewedFilmId(SplittableRandom random, int films) {
+        double u = random.nextDouble();
+        return (int) (films * u * u * u) + 1;
+    }
+}
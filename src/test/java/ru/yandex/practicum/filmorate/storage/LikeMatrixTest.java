@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LikeMatrixTest {
+
+    private final LikeMatrix matrix = new LikeMatrix();
+
+    @Test
+    void testRecommendShouldRankUnseenFilmsOfSimilarUsers() {
+        likeAll(1, 10, 11, 12);
+        likeAll(2, 10, 11, 12, 20, 21);
+        likeAll(3, 10, 21, 22);
+        likeAll(4, 30);
+
+        assertThat(recommend(1, 10)).containsExactly(21L, 20L, 22L);
+        assertThat(recommend(1, 1)).containsExactly(21L);
+    }
+
+    @Test
+    void testRecommendShouldReflectUnlikes() {
+        likeAll(1, 10);
+        likeAll(2, 10, 20);
+
+        assertThat(recommend(1, 10)).containsExactly(20L);
+        assertThat(matrix.unlike(2, 10)).isTrue();
+        assertThat(matrix.unlike(2, 10)).isFalse();
+        assertThat(recommend(1, 10)).isEmpty();
+        assertThat(matrix.likeCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testRecommendShouldBeEmptyWithoutLikes() {
+        likeAll(2, 10, 20);
+
+        assertThat(recommend(1, 10)).isEmpty();
+        assertThat(recommend(2, 10)).isEmpty();
+    }
+
+    @Test
+    void testRebuildShouldReplaceLoadedLikes() {
+        likeAll(1, 99);
+        matrix.rebuild(sink -> {
+            sink.accept(1, 10);
+            sink.accept(2, 10);
+            sink.accept(2, 20);
+        });
+
+        assertThat(matrix.likeCount()).isEqualTo(3);
+        assertThat(recommend(1, 10)).containsExactly(20L);
+    }
+
+    @Test
+    void testParallelNeighborSearchShouldKeepClosestUsers() {
+        int users = LikeMatrix.PARALLEL_THRESHOLD * 2;
+        likeAll(1, 1, 2, 3);
+        for (int userId = 2; userId < users + 2; userId++) {
+            matrix.like(userId, 1);
+            matrix.like(userId, 1_000 + userId);
+        }
+        likeAll(users + 10, 1, 2, 3, 500);
+
+        assertThat(recommend(1, 1)).containsExactly(500L);
+    }
+
+    private void likeAll(long userId, long... filmIds) {
+        for (long filmId : filmIds) {
+            matrix.like(userId, filmId);
+        }
+    }
+
+    private List<Long> recommend(long userId, int limit) {
+        return matrix.recommend(userId, 50, limit, 50_000, ForkJoinPool.commonPool());
+    }
+}
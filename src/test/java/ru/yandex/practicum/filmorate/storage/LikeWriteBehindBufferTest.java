@@ -0,0 +1,221 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikeResult;
+import ru.yandex.practicum.filmorate.service.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.max-pending=3",
+        "filmorate.likes.write-behind.flush-interval-ms=3600000"
+})
+@AutoConfigureTestDatabase
+// Сброс идёт в собственной транзакции, поэтому данные теста должны быть зафиксированы
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmDbStorage.class, FilmRowMapper.class, LikeWriteBehindBuffer.class, FilmPopularityIndex.class})
+class LikeWriteBehindBufferTest {
+
+    private static final Duration FLUSH_WAIT = Duration.ofSeconds(5);
+
+    private final FilmDbStorage filmStorage;
+    private final LikeWriteBehindBuffer likeBuffer;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FilmPopularityIndex popularityIndex;
+
+    private Long filmId;
+
+    @BeforeEach
+    void setUp() {
+        likeBuffer.flush();
+        jdbcTemplate.update("DELETE FROM likes");
+        filmId = addFilm();
+    }
+
+    private Long addFilm() {
+        return filmStorage.addFilm(Film.builder()
+                .name("Buffered film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpaId(1)
+                .build()).getFilmId();
+    }
+
+    @Test
+    void testPendingLikeShouldBeVisibleBeforeFlush() {
+        LikeResult added = filmStorage.addLike(filmId, 1L);
+
+        assertThat(added).isEqualTo(LikeResult.APPLIED);
+        assertThat(filmStorage.isFilmLikedByUser(filmId, 1L)).isTrue();
+        assertThat(filmStorage.addLike(filmId, 1L)).isEqualTo(LikeResult.ALREADY_LIKED);
+        assertThat(countLikes()).isZero();
+    }
+
+    @Test
+    void testLikeMatrixShouldFollowOnlyFlushedLikes() {
+        Long otherFilmId = addFilm();
+        filmStorage.loadLikeMatrix();
+        filmStorage.addLike(filmId, 2L);
+        filmStorage.addLike(otherFilmId, 2L);
+        likeBuffer.flush();
+        filmStorage.addLike(filmId, 1L);
+
+        assertThat(filmStorage.findRecommendedFilmIds(1L, 10, 10, 1000)).isEmpty();
+
+        likeBuffer.flush();
+        assertThat(filmStorage.findRecommendedFilmIds(1L, 10, 10, 1000)).containsExactly(otherFilmId);
+    }
+
+    @Test
+    void testFlushShouldPersistLikesAndCounter() {
+        filmStorage.addLike(filmId, 1L);
+        filmStorage.addLike(filmId, 2L);
+        likeBuffer.flush();
+
+        assertThat(likeBuffer.pendingCount()).isZero();
+        assertThat(countLikes()).isEqualTo(2);
+        assertThat(getLikeCount()).isEqualTo(2);
+        assertThat(filmStorage.isFilmLikedByUser(filmId, 2L)).isTrue();
+    }
+
+    @Test
+    void testAddAndDeleteShouldCoalesceIntoNoop() {
+        filmStorage.addLike(filmId, 1L);
+        LikeResult deleted = filmStorage.deleteLike(filmId, 1L);
+
+        assertThat(deleted).isEqualTo(LikeResult.APPLIED);
+        assertThat(likeBuffer.pendingCount()).isZero();
+        assertThat(filmStorage.isFilmLikedByUser(filmId, 1L)).isFalse();
+    }
+
+    @Test
+    void testDeleteOfPersistedLikeShouldBeFlushed() {
+        filmStorage.addLike(filmId, 1L);
+        likeBuffer.flush();
+        filmStorage.deleteLike(filmId, 1L);
+
+        assertThat(filmStorage.isFilmLikedByUser(filmId, 1L)).isFalse();
+        assertThat(countLikes()).isEqualTo(1);
+        likeBuffer.flush();
+        assertThat(countLikes()).isZero();
+        assertThat(getLikeCount()).isZero();
+    }
+
+    @Test
+    void testBufferShouldFlushInBackgroundWhenSizeThresholdReached() throws InterruptedException {
+        filmStorage.addLike(filmId, 1L);
+        filmStorage.addLike(filmId, 2L);
+        filmStorage.addLike(filmId, 3L);
+
+        // Буфер пустеет в начале сброса, поэтому ждём фиксации строк, а не очистки буфера
+        awaitLikes(3);
+        assertThat(likeBuffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void testFlushShouldNotJoinCallerTransaction() {
+        filmStorage.addLike(filmId, 1L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            likeBuffer.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(countLikes()).isEqualTo(1);
+        assertThat(getLikeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedBatchShouldKeepValidLikesAndDropRejectedOnes() {
+        Long deletedFilmId = addFilm();
+        filmStorage.addLike(filmId, 1L);
+        filmStorage.addLike(deletedFilmId, 1L);
+        jdbcTemplate.update("DELETE FROM films WHERE film_id = ?", deletedFilmId);
+
+        likeBuffer.flush();
+
+        assertThat(countLikes()).isEqualTo(1);
+        assertThat(getLikeCount()).isEqualTo(1);
+        assertThat(likeBuffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void testPopularityShouldFollowOnlyPersistedLikes() {
+        Long deletedFilmId = addFilm();
+        popularityIndex.rebuild();
+        filmStorage.addLike(filmId, 1L);
+        filmStorage.addLike(deletedFilmId, 1L);
+        jdbcTemplate.update("DELETE FROM films WHERE film_id = ?", deletedFilmId);
+
+        assertThat(popularityIndex.getLikeCount(filmId)).isZero();
+        likeBuffer.flush();
+
+        assertThat(popularityIndex.getLikeCount(filmId)).isEqualTo(1);
+        assertThat(popularityIndex.getLikeCount(deletedFilmId)).isZero();
+    }
+
+    @Test
+    void testTransientFailureShouldReturnLikesToBuffer() {
+        filmStorage.addLike(filmId, 1L);
+        filmStorage.addLike(filmId, 2L);
+        jdbcTemplate.execute("ALTER TABLE likes RENAME TO likes_unavailable");
+        try {
+            likeBuffer.flush();
+
+            assertThat(likeBuffer.pendingCount()).isEqualTo(2);
+            filmStorage.deleteLike(filmId, 2L);
+            assertThat(likeBuffer.pendingCount()).isEqualTo(1);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE likes_unavailable RENAME TO likes");
+        }
+
+        likeBuffer.flush();
+        assertThat(likeBuffer.pendingCount()).isZero();
+        assertThat(filmStorage.isFilmLikedByUser(filmId, 1L)).isTrue();
+        assertThat(filmStorage.isFilmLikedByUser(filmId, 2L)).isFalse();
+        assertThat(countLikes()).isEqualTo(1);
+        assertThat(getLikeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testMissingFilmOrUserShouldNotBeBuffered() {
+        assertThat(filmStorage.addLike(filmId + 1000, 1L)).isEqualTo(LikeResult.FILM_NOT_FOUND);
+        assertThat(filmStorage.addLike(filmId, 999L)).isEqualTo(LikeResult.USER_NOT_FOUND);
+        assertThat(likeBuffer.pendingCount()).isZero();
+    }
+
+    private void awaitLikes(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + FLUSH_WAIT.toNanos();
+        while (countLikes() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(countLikes()).isEqualTo(expected);
+    }
+
+    private int countLikes() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes WHERE film_id = ?", Integer.class, filmId);
+    }
+
+    private int getLikeCount() {
+        return jdbcTemplate.queryForObject("SELECT like_count FROM films WHERE film_id = ?", Integer.class, filmId);
+    }
+}
@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Запуск: mvn test -Dtest=PopularFilmsBenchmarkTest -Dfilmorate.benchmark=true [-Dfilmorate.benchmark.likes=1000000]
+@Slf4j
+@JdbcTest
+@AutoConfigureTestDatabase
+@EnabledIfSystemProperty(named = "filmorate.benchmark", matches = "true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmDbStorage.class, FilmRowMapper.class})
+class PopularFilmsBenchmarkTest {
+
+    private static final int ITERATIONS = 50;
+    private static final int COUNT = 10;
+    private static final int USERS = 10_000;
+
+    // Исходный вариант: подсчёт лайков через GROUP BY и фильтры поверх него
+    private static final String GROUP_BY_SQL = """
+            SELECT f.film_id
+            FROM films f
+            LEFT JOIN likes l ON l.film_id = f.film_id
+            WHERE (? IS NULL OR EXISTS (SELECT 1 FROM film_genre fg WHERE fg.film_id = f.film_id AND fg.genre_id = ?))
+              AND (? IS NULL OR EXTRACT(YEAR FROM f.release_date) = ?)
+              AND (? IS NULL OR f.rating_id = ?)
+            GROUP BY f.film_id
+            ORDER BY COUNT(l.user_id) DESC, f.film_id DESC
+            LIMIT ?
+            """;
+
+    private final FilmDbStorage filmStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testFilteredPopularFilms() {
+        int likes = Integer.getInteger("filmorate.benchmark.likes", 1_000_000);
+        int films = Integer.getInteger("filmorate.benchmark.films", 50_000);
+        generateDataset(films, likes);
+
+        benchmark("жанр", 3, null, null);
+        benchmark("год", null, 2005, null);
+        benchmark("рейтинг", null, null, 4);
+        benchmark("жанр + год + рейтинг", 1, 2010, 2);
+    }
+
+    private void benchmark(String label, Integer genreId, Integer year, Integer mpaId) {
+        List<Long> expected = jdbcTemplate.queryForList(GROUP_BY_SQL, Long.class,
+                genreId, genreId, year, year, mpaId, mpaId, COUNT);
+        assertThat(filmStorage.findTopPopularFilmIds(COUNT, genreId, year, mpaId)).isEqualTo(expected);
+
+        double groupByMicros = measure(count -> jdbcTemplate.queryForList(GROUP_BY_SQL, Long.class,
+                genreId, genreId, year, year, mpaId, mpaId, count));
+        double indexedMicros = measure(count -> filmStorage.findTopPopularFilmIds(count, genreId, year, mpaId));
+        log.info("Популярные фильмы, фильтр «{}»: GROUP BY — {} мкс, like_count с индексами — {} мкс",
+                label, Math.round(groupByMicros), Math.round(indexedMicros));
+    }
+
+    private void generateDataset(int films, int likes) {
+        jdbcTemplate.update("""
+                INSERT INTO films (name, description, release_date, duration, rating_id)
+                SELECT 'Bench ' || X, 'Description', DATEADD(DAY, MOD(X * 7919, 365 * 40), DATE '1985-01-01'),
+                       90, MOD(X, 5) + 1
+                FROM SYSTEM_RANGE(1, ?)
+                """, films);
+        jdbcTemplate.update("""
+                INSERT INTO film_genre (film_id, genre_id)
+                SELECT DISTINCT f.film_id, MOD(f.film_id * g.X, 6) + 1
+                FROM films f CROSS JOIN SYSTEM_RANGE(1, 2) g
+                WHERE f.name LIKE 'Bench %'
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO users (email, login, name, birthday)
+                SELECT 'bench' || X || '@example.com', 'bench' || X, 'Bench ' || X, DATE '2000-01-01'
+                FROM SYSTEM_RANGE(1, ?)
+                """, USERS);
+        // Квадрат равномерной величины даёт перекос: первые фильмы собирают больше лайков
+        jdbcTemplate.update("""
+                INSERT INTO likes (film_id, user_id)
+                SELECT DISTINCT
+                       (SELECT MIN(film_id) FROM films WHERE name LIKE 'Bench %') + CAST(FLOOR(? * POWER(MOD(X * 48271, 1000003) / 1000003.0, 2)) AS BIGINT),
+                       (SELECT MIN(user_id) FROM users WHERE email LIKE 'bench%') + MOD(X, ?)
+                FROM SYSTEM_RANGE(1, ?)
+                """, films, USERS, likes);
+        filmStorage.reconcileLikeCounts();
+        log.info("Сгенерировано фильмов: {}, лайков: {}", films,
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes", Long.class));
+    }
+
+    // H2 повторно отдаёт результат команды при тех же параметрах, поэтому count чередуется
+    private static double measure(IntFunction<?> action) {
+        for (int i = 0; i < ITERATIONS / 5; i++) {
+            action.apply(COUNT + (i & 1));
+        }
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            action.apply(COUNT + (i & 1));
+        }
+        return (System.nanoTime() - startedAt) / 1_000.0 / ITERATIONS;
+    }
+}
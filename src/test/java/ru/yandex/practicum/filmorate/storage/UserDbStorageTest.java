@@ -12,6 +12,7 @@ import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.mapper.UserRowMapper;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -77,7 +78,7 @@ class UserDbStorageTest {
     }
 
     @Test
-    void testFindAllUsersShouldReturnAllUsers() {
+    void testFindUsersPageFromStartShouldReturnAllUsers() {
         User user1 = userStorage.addUser(
                 User.builder()
                         .email("user1_" + System.currentTimeMillis() + "@example.com")
@@ -94,13 +95,37 @@ class UserDbStorageTest {
                         .birthday(LocalDate.of(1995, 5, 5))
                         .build()
         );
-        List<User> users = userStorage.findAllUsers();
+        List<User> users = userStorage.findUsersPage(0, 10);
 
         assertThat(users)
                 .extracting(User::getUserId)
                 .containsExactlyInAnyOrder(user1.getUserId(), user2.getUserId());
     }
 
+    @Test
+    void testFindUsersPageShouldReturnUsersAfterCursorOrderedById() {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            userIds.add(userStorage.addUser(
+                    User.builder()
+                            .email("page" + i + "@example.com")
+                            .login("page" + i)
+                            .name("Page User " + i)
+                            .birthday(LocalDate.of(1990, 1, 1))
+                            .build()
+            ).getUserId());
+        }
+        List<User> firstPage = userStorage.findUsersPage(0, 2);
+        List<User> secondPage = userStorage.findUsersPage(firstPage.getLast().getUserId(), 2);
+
+        assertThat(firstPage)
+                .extracting(User::getUserId)
+                .containsExactly(userIds.get(0), userIds.get(1));
+        assertThat(secondPage)
+                .extracting(User::getUserId)
+                .containsExactly(userIds.get(2));
+    }
+
     @Test
     void testFindUserByIdShouldReturnUserWhenExists() {
         User newUser = userStorage.addUser(
@@ -125,4 +150,40 @@ class UserDbStorageTest {
         Optional<User> foundUser = userStorage.findUserById(999L);
         assertThat(foundUser).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testExistsByIdShouldSeeNewAndRejectMissingUsers() {
+        User newUser = userStorage.addUser(
+                User.builder()
+                        .email("exists@example.com")
+                        .login("existsLogin")
+                        .name("Exists")
+                        .birthday(LocalDate.of(2000, 1, 1))
+                        .build()
+        );
+
+        assertThat(userStorage.existsById(newUser.getUserId())).isTrue();
+        assertThat(userStorage.existsById(999L)).isFalse();
+        assertThat(userStorage.existsById(null)).isFalse();
+    }
+
+    @Test
+    void testFindUsersByIdsShouldKeepRequestOrderAndSkipMissing() {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            userIds.add(userStorage.addUser(
+                    User.builder()
+                            .email("bulk" + i + "@example.com")
+                            .login("bulk" + i)
+                            .name("Bulk " + i)
+                            .birthday(LocalDate.of(2000, 1, 1))
+                            .build()
+            ).getUserId());
+        }
+        List<User> users = userStorage.findUsersByIds(List.of(userIds.get(2), 999L, userIds.get(0)));
+
+        assertThat(users)
+                .extracting(User::getUserId)
+                .containsExactly(userIds.get(2), userIds.get(0));
+    }
+}